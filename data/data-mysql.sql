@@ -94,6 +94,14 @@ INSERT INTO visits (id, pet_id, vet_id, visit_date, description, cost) VALUES
 (5, 1, 1, '2024-01-15', 'general checkup', 65.00),
 (6, 3, 4, '2024-02-20', 'dental cleaning', 150.00);
 
+-- ===============================================
+-- Resumen diario de visitas (visit_daily_stats)
+-- ===============================================
+INSERT INTO visit_daily_stats (visit_date, vet_id, type_id, visits, total_cost, min_cost, max_cost)
+SELECT v.visit_date, COALESCE(v.vet_id, 0), p.type_id, COUNT(*), COALESCE(SUM(v.cost), 0), MIN(v.cost), MAX(v.cost)
+FROM visits v JOIN pets p ON p.id = v.pet_id
+GROUP BY v.visit_date, COALESCE(v.vet_id, 0), p.type_id;
+
 -- ===============================================
 -- END OF DATA INSERTION
 -- ===============================================
\ No newline at end of file
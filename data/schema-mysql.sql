@@ -20,17 +20,39 @@ ALTER DATABASE PETCLINIC_DB
 
 USE PETCLINIC_DB;
 
+-- ===============================================
+-- ID SEQUENCES (Generadores de ID)
+-- Description: MySQL has no sequences, so Hibernate emulates each one with
+-- a single-row table and reserves ids in blocks of 50 (pooled optimizer),
+-- which keeps JDBC insert batching enabled. next_val starts above the
+-- sample data ids.
+-- ===============================================
+CREATE TABLE IF NOT EXISTS vets_seq (next_val BIGINT NOT NULL) ENGINE=InnoDB;
+CREATE TABLE IF NOT EXISTS specialties_seq (next_val BIGINT NOT NULL) ENGINE=InnoDB;
+CREATE TABLE IF NOT EXISTS types_seq (next_val BIGINT NOT NULL) ENGINE=InnoDB;
+CREATE TABLE IF NOT EXISTS owners_seq (next_val BIGINT NOT NULL) ENGINE=InnoDB;
+CREATE TABLE IF NOT EXISTS pets_seq (next_val BIGINT NOT NULL) ENGINE=InnoDB;
+CREATE TABLE IF NOT EXISTS visits_seq (next_val BIGINT NOT NULL) ENGINE=InnoDB;
+
+INSERT INTO vets_seq VALUES (100);
+INSERT INTO specialties_seq VALUES (100);
+INSERT INTO types_seq VALUES (100);
+INSERT INTO owners_seq VALUES (100);
+INSERT INTO pets_seq VALUES (100);
+INSERT INTO visits_seq VALUES (100);
+
 -- ===============================================
 -- TABLE: vets (Veterinarios)
 -- Description: Stores veterinarian information
 -- ===============================================
 CREATE TABLE IF NOT EXISTS vets (
-  id              INT(4) UNSIGNED NOT NULL AUTO_INCREMENT,
+  id              INT(4) UNSIGNED NOT NULL,
   first_name      VARCHAR(30),
   last_name       VARCHAR(30),
   email           VARCHAR(100),
   phone           VARCHAR(20),
   active          BOOLEAN DEFAULT TRUE,
+  version         INT NOT NULL DEFAULT 0,
   PRIMARY KEY (id),
   INDEX idx_vets_last_name (last_name)
 ) ENGINE=InnoDB;
@@ -40,7 +62,7 @@ CREATE TABLE IF NOT EXISTS vets (
 -- Description: Stores veterinary specialties
 -- ===============================================
 CREATE TABLE IF NOT EXISTS specialties (
-  id            INT(4) UNSIGNED NOT NULL AUTO_INCREMENT,
+  id            INT(4) UNSIGNED NOT NULL,
   name          VARCHAR(80),
   office        VARCHAR(40),
   h_open        INT(4),
@@ -74,7 +96,7 @@ CREATE TABLE IF NOT EXISTS vet_specialties (
 -- Description: Stores pet type categories
 -- ===============================================
 CREATE TABLE IF NOT EXISTS types (
-  id                  INT(4) UNSIGNED NOT NULL AUTO_INCREMENT,
+  id                  INT(4) UNSIGNED NOT NULL,
   name                VARCHAR(80) NOT NULL,
   description         VARCHAR(100),
   active              BOOLEAN DEFAULT TRUE,
@@ -90,12 +112,13 @@ CREATE TABLE IF NOT EXISTS types (
 -- Description: Stores pet owner information
 -- ===============================================
 CREATE TABLE IF NOT EXISTS owners (
-  id            INT(4) UNSIGNED NOT NULL AUTO_INCREMENT,
+  id            INT(4) UNSIGNED NOT NULL,
   first_name    VARCHAR(30),
   last_name     VARCHAR(30),
   address       VARCHAR(255),
   city          VARCHAR(80),
   telephone     VARCHAR(20),
+  version       INT NOT NULL DEFAULT 0,
   PRIMARY KEY (id),
   INDEX idx_owners_last_name (last_name)
 ) ENGINE=InnoDB;
@@ -105,7 +128,7 @@ CREATE TABLE IF NOT EXISTS owners (
 -- Description: Stores pet information
 -- ===============================================
 CREATE TABLE IF NOT EXISTS pets (
-  id            INT(4) UNSIGNED NOT NULL AUTO_INCREMENT,
+  id            INT(4) UNSIGNED NOT NULL,
   name          VARCHAR(30) NOT NULL,
   birth_date    DATE,
   type_id       INT(4) UNSIGNED NOT NULL,
@@ -126,12 +149,13 @@ CREATE TABLE IF NOT EXISTS pets (
 -- Description: Stores pet visit records
 -- ===============================================
 CREATE TABLE IF NOT EXISTS visits (
-  id              INT(4) UNSIGNED NOT NULL AUTO_INCREMENT,
+  id              INT(4) UNSIGNED NOT NULL,
   pet_id          INT(4) UNSIGNED NOT NULL,
   vet_id          INT(4) UNSIGNED,
   visit_date      DATE NOT NULL,
   description     VARCHAR(255),
   cost            DECIMAL(10,2),
+  version         INT NOT NULL DEFAULT 0,
   PRIMARY KEY (id),
   INDEX idx_visits_pet_id (pet_id),
   INDEX idx_visits_vet_id (vet_id),
@@ -144,6 +168,23 @@ CREATE TABLE IF NOT EXISTS visits (
     ON UPDATE CASCADE
 ) ENGINE=InnoDB;
 
+-- ===============================================
+-- TABLE: visit_daily_stats (Resumen diario de visitas)
+-- Description: Rollup per date x vet x pet type, kept up to date by
+-- VisitServiceImpl and rebuilt with POST /visits/stats/rebuild.
+-- vet_id 0 groups the visits without vet.
+-- ===============================================
+CREATE TABLE IF NOT EXISTS visit_daily_stats (
+  visit_date      DATE NOT NULL,
+  vet_id          INT(4) UNSIGNED NOT NULL,
+  type_id         INT(4) UNSIGNED NOT NULL,
+  visits          BIGINT NOT NULL,
+  total_cost      DECIMAL(14,2) NOT NULL,
+  min_cost        DECIMAL(10,2),
+  max_cost        DECIMAL(10,2),
+  PRIMARY KEY (visit_date, vet_id, type_id)
+) ENGINE=InnoDB;
+
 -- ===============================================
 -- END OF SCHEMA CREATION
--- ===============================================
\ No newline at end of file
+-- ===============================================
\ No newline at end of file
@@ -0,0 +1,157 @@
+package com.tecsup.petclinic.benchmarks;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The application running in its own process, as it is deployed, for the benchmarks that
+ * compare builds: default (plain jar), cds, aot and aot-cds need {@code mvn -Pfaststart package},
+ * native needs {@code mvn -Pnative package}. Paths are relative to the project directory.
+ */
+final class ApplicationProcess {
+
+    private static final Path APPLICATION = Path.of(System.getProperty("faststart.directory", "target/application"));
+    private static final Path NATIVE_IMAGE = Path.of(System.getProperty("native.image", "target/petclinic"));
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private final String mode;
+    private final Process process;
+    private final String baseUrl;
+    private long firstRequestNanos;
+
+    private ApplicationProcess(String mode, Process process, int port) {
+        this.mode = mode;
+        this.process = process;
+        this.baseUrl = "http://localhost:" + port;
+    }
+
+    /**
+     * Launches the build of {@code mode} with the given Spring profiles on a free port;
+     * {@code properties} ({@code name=value}) are passed as system properties.
+     */
+    static ApplicationProcess start(String mode, String profiles, String... properties) throws IOException {
+        int port = freePort();
+        List<String> command = command(mode);
+        command.add(1, "-Dspring.profiles.active=" + profiles);
+        command.add(2, "-Dserver.port=" + port);
+        for (int i = 0; i < properties.length; i++)
+            command.add(3 + i, "-D" + properties[i]);
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        return new ApplicationProcess(mode, process, port);
+    }
+
+    /** Fails fast when the build of {@code mode} has not been produced. */
+    static void checkBuilt(String mode) {
+        Path artifact = "native".equals(mode) ? NATIVE_IMAGE : jar();
+        if (Files.notExists(artifact))
+            throw new IllegalStateException(artifact + " not found, run mvn -P"
+                    + ("native".equals(mode) ? "native" : "faststart") + " -DskipTests package first");
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Polls {@code path} until it answers 200 and returns that response.
+     * The latency of that single request is kept in {@link #firstRequestMillis()}.
+     */
+    HttpResponse<byte[]> awaitFirstRequest(HttpClient client, String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive())
+                throw new IllegalStateException(mode + ": application exited with " + process.exitValue());
+            long start = System.nanoTime();
+            try {
+                HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                if (response.statusCode() == 200) {
+                    firstRequestNanos = System.nanoTime() - start;
+                    return response;
+                }
+            } catch (IOException e) {
+                // Todavía no escucha en el puerto
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException(mode + ": no response from " + path + " after " + TIMEOUT);
+    }
+
+    double firstRequestMillis() {
+        return firstRequestNanos / 1_000_000.0;
+    }
+
+    // VmRSS de /proc/<pid>/status (kB); 0 fuera de Linux
+    double rssMb() throws IOException {
+        Path status = Path.of("/proc", Long.toString(process.pid()), "status");
+        if (Files.notExists(status))
+            return 0;
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:"))
+                return Long.parseLong(line.replaceAll("\\D", "")) / 1024.0;
+        }
+        return 0;
+    }
+
+    void stop() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS))
+            process.destroyForcibly().waitFor();
+    }
+
+    // Ejecutable y opciones de cada modo; los argumentos comunes se insertan tras el ejecutable
+    private static List<String> command(String mode) {
+        List<String> command = new ArrayList<>();
+        if ("native".equals(mode)) {
+            command.add(NATIVE_IMAGE.toAbsolutePath().toString());
+            return command;
+        }
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        switch (mode) {
+            case "default" -> { }
+            case "cds" -> command.add("-XX:SharedArchiveFile=" + APPLICATION.resolve("application.jsa"));
+            case "aot" -> command.add("-Dspring.aot.enabled=true");
+            case "aot-cds" -> {
+                command.add("-XX:SharedArchiveFile=" + APPLICATION.resolve("application-aot.jsa"));
+                command.add("-Dspring.aot.enabled=true");
+            }
+            default -> throw new IllegalArgumentException("Unknown mode " + mode);
+        }
+        command.add("-jar");
+        command.add(jar().toString());
+        return command;
+    }
+
+    private static Path jar() {
+        try (var files = Files.list(APPLICATION)) {
+            return files.filter(file -> file.toString().endsWith(".jar"))
+                    .findFirst()
+                    .orElse(APPLICATION.resolve("petclinic-0.0.1-SNAPSHOT.jar"));
+        } catch (IOException e) {
+            return APPLICATION.resolve("petclinic-0.0.1-SNAPSHOT.jar");
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
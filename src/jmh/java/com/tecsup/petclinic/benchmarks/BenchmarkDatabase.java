@@ -0,0 +1,147 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.tecsup.petclinic.PetClinicApplication;
+import com.tecsup.petclinic.services.VisitService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Boots PetClinicApplication on a private in-memory H2 database and seeds it with
+ * {@code visits} visits, a quarter as many pets and a tenth as many owners. Seeded
+ * ids start at {@link #ID_OFFSET} so they never collide with data.sql, and the id
+ * sequences are moved past them. {@link #start} runs without a web server,
+ * {@link #startServer} on a random port.
+ */
+public final class BenchmarkDatabase {
+
+    public static final int ID_OFFSET = 1000;
+    public static final int PET_NAMES = 1000;
+    public static final int VISIT_DAYS = 3650;
+    public static final LocalDate FIRST_VISIT_DATE = LocalDate.of(2015, 1, 1);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private BenchmarkDatabase() {
+    }
+
+    public static ConfigurableApplicationContext start(int visits, String... args) {
+        return start(WebApplicationType.NONE, visits, args);
+    }
+
+    public static ConfigurableApplicationContext startServer(int visits, String... args) {
+        String[] all = new String[args.length + 2];
+        all[0] = "--server.port=0";
+        all[1] = "--management.server.port=0";
+        System.arraycopy(args, 0, all, 2, args.length);
+        return start(WebApplicationType.SERVLET, visits, all);
+    }
+
+    public static int port(ConfigurableApplicationContext context) {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType type, int visits, String... args) {
+        String[] defaults = {
+                "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"
+        };
+        String[] all = new String[defaults.length + args.length];
+        System.arraycopy(defaults, 0, all, 0, defaults.length);
+        System.arraycopy(args, 0, all, defaults.length, args.length);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(PetClinicApplication.class)
+                .web(type)
+                .run(all);
+        seed(context.getBean(JdbcTemplate.class), visits);
+        context.getBean(VisitService.class).rebuildDailyStats(null, null);
+        return context;
+    }
+
+    public static int owners(int visits) {
+        return Math.max(1, visits / 10);
+    }
+
+    public static int pets(int visits) {
+        return Math.max(1, visits / 4);
+    }
+
+    public static String petName(int i) {
+        return "pet-" + (i % PET_NAMES);
+    }
+
+    private static void seed(JdbcTemplate jdbc, int visits) {
+        int owners = owners(visits);
+        int pets = pets(visits);
+
+        insert(jdbc, "INSERT INTO owners (id, first_name, last_name, address, city, telephone) VALUES (?, ?, ?, ?, ?, ?)",
+                owners, (ps, i) -> {
+                    ps.setInt(1, ID_OFFSET + i);
+                    ps.setString(2, "First" + i);
+                    ps.setString(3, "Last" + (i % 500));
+                    ps.setString(4, i + " Main St.");
+                    ps.setString(5, "City" + (i % 50));
+                    ps.setString(6, "608555" + (1000 + i % 9000));
+                });
+
+        insert(jdbc, "INSERT INTO pets (id, name, birth_date, type_id, owner_id, age) VALUES (?, ?, ?, ?, ?, ?)",
+                pets, (ps, i) -> {
+                    ps.setInt(1, ID_OFFSET + i);
+                    ps.setString(2, petName(i));
+                    ps.setDate(3, Date.valueOf(LocalDate.of(2010, 1, 1).plusDays(i % 4000)));
+                    ps.setInt(4, 1 + i % 8);
+                    ps.setInt(5, ID_OFFSET + i % owners);
+                    ps.setInt(6, i % 15);
+                });
+
+        insert(jdbc, "INSERT INTO visits (id, pet_id, vet_id, visit_date, description, cost) VALUES (?, ?, ?, ?, ?, ?)",
+                visits, (ps, i) -> {
+                    ps.setInt(1, ID_OFFSET + i);
+                    ps.setInt(2, ID_OFFSET + i % pets);
+                    ps.setInt(3, 1 + i % 6);
+                    ps.setDate(4, Date.valueOf(FIRST_VISIT_DATE.plusDays(i % VISIT_DAYS)));
+                    ps.setString(5, "visit " + i);
+                    ps.setDouble(6, 20 + i % 300);
+                });
+
+        // Las secuencias deben quedar por encima de los ids sembrados
+        restartSequence(jdbc, "owners_seq", owners);
+        restartSequence(jdbc, "pets_seq", pets);
+        restartSequence(jdbc, "visits_seq", visits);
+    }
+
+    private static void restartSequence(JdbcTemplate jdbc, String sequence, int seeded) {
+        jdbc.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (ID_OFFSET + seeded + 100));
+    }
+
+    private static void insert(JdbcTemplate jdbc, String sql, int count, RowSetter setter) {
+        for (int start = 0; start < count; start += BATCH_SIZE) {
+            int offset = start;
+            int size = Math.min(BATCH_SIZE, count - start);
+            jdbc.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    setter.set(ps, offset + i);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            });
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowSetter {
+        void set(PreparedStatement ps, int i) throws SQLException;
+    }
+}
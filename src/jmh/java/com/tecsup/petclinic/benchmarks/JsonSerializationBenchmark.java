@@ -0,0 +1,100 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tecsup.petclinic.dtos.OwnerDTO;
+import com.tecsup.petclinic.dtos.VisitDTO;
+import com.tecsup.petclinic.entities.Owner;
+import com.tecsup.petclinic.entities.Visit;
+import com.tecsup.petclinic.mappers.OwnerMapper;
+import com.tecsup.petclinic.mappers.VisitMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization cost of what the controllers return, using the same Jackson defaults
+ * Spring Boot applies to its ObjectMapper: the Lombok entities they used to return
+ * (visit, owner, visitList) against the record DTOs they return now (visitDto, ownerDto,
+ * visitDtoList), and the DTO list including the MapStruct mapping (visitListMapped).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    // Elementos en la lista serializada por visitList
+    @Param("1000")
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private Visit visit;
+    private Owner owner;
+    private List<Visit> visits;
+    private VisitMapper visitMapper;
+    private VisitDTO visitDto;
+    private OwnerDTO ownerDto;
+    private List<VisitDTO> visitDtos;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        visit = new Visit(7, 2, LocalDate.of(2010, 3, 4), "rabies shot", 45.00);
+        visit.setId(1);
+        owner = new Owner("George", "Franklin", "110 W. Liberty St.", "Madison", "6085551023");
+        owner.setId(1L);
+        visits = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Visit v = new Visit(i % 13, 1 + i % 6, LocalDate.of(2015, 1, 1).plusDays(i), "visit " + i, 20.0 + i % 300);
+            v.setId(i);
+            visits.add(v);
+        }
+        visitMapper = Mappers.getMapper(VisitMapper.class);
+        visitDto = visitMapper.mapToDto(visit);
+        ownerDto = Mappers.getMapper(OwnerMapper.class).mapToDto(owner);
+        visitDtos = visitMapper.mapToDtos(visits);
+    }
+
+    @Benchmark
+    public byte[] visit() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(visit);
+    }
+
+    @Benchmark
+    public byte[] owner() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(owner);
+    }
+
+    @Benchmark
+    public byte[] visitList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(visits);
+    }
+
+    @Benchmark
+    public byte[] visitDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(visitDto);
+    }
+
+    @Benchmark
+    public byte[] ownerDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ownerDto);
+    }
+
+    @Benchmark
+    public byte[] visitDtoList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(visitDtos);
+    }
+
+    @Benchmark
+    public byte[] visitListMapped() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(visitMapper.mapToDtos(visits));
+    }
+}
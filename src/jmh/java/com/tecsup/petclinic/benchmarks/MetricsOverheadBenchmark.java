@@ -0,0 +1,60 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.entities.Pet;
+import com.tecsup.petclinic.exceptions.PetNotFoundException;
+import com.tecsup.petclinic.services.PetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the petclinic.method instrumentation: the same PetService calls with
+ * MethodMetricsAspect removed (metrics=false) and active (metrics=true). Each call
+ * records one service and one repository timer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    @Param("10000")
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private ConfigurableApplicationContext context;
+    private PetService petService;
+    private int pets;
+    private int owners;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start(rows, "--petclinic.metrics.enabled=" + metrics);
+        petService = context.getBean(PetService.class);
+        pets = BenchmarkDatabase.pets(rows);
+        owners = BenchmarkDatabase.owners(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PetDTO findById() throws PetNotFoundException {
+        return petService.findById(BenchmarkDatabase.ID_OFFSET + (next++ % pets));
+    }
+
+    @Benchmark
+    public List<Pet> findByOwnerId() {
+        return petService.findByOwnerId(BenchmarkDatabase.ID_OFFSET + (next++ % owners));
+    }
+}
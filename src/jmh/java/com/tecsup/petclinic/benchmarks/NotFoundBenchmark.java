@@ -0,0 +1,89 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.tecsup.petclinic.exceptions.PetNotFoundException;
+import com.tecsup.petclinic.services.PetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a miss: GET of an id that does not exist over HTTP (404 with a problem+json body)
+ * and {@code PetService.findById} in-process. stackTraces=true runs the app as it was before
+ * the not-found exceptions became stackless, so both rows of the report compare the two.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotFoundBenchmark {
+
+    // Muy por encima de cualquier id sembrado
+    private static final int MISSING_ID = 100_000_000;
+
+    @Param("10000")
+    public int rows;
+
+    // Cada valor corre en su propio fork, así la propiedad se lee al cargar NotFoundException
+    @Param({"false", "true"})
+    public boolean stackTraces;
+
+    private ConfigurableApplicationContext context;
+    private PetService petService;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("petclinic.exceptions.stack-traces", Boolean.toString(stackTraces));
+        context = BenchmarkDatabase.startServer(rows);
+        petService = context.getBean(PetService.class);
+        baseUrl = "http://localhost:" + BenchmarkDatabase.port(context);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getMissingPet() throws IOException, InterruptedException {
+        return get("/pets/" + missingId());
+    }
+
+    @Benchmark
+    public int getMissingOwner() throws IOException, InterruptedException {
+        return get("/owners/" + missingId());
+    }
+
+    @Benchmark
+    public Exception findMissingPet() {
+        try {
+            petService.findById(missingId());
+            throw new IllegalStateException("PetNotFoundException expected");
+        } catch (PetNotFoundException e) {
+            return e;
+        }
+    }
+
+    private static int missingId() {
+        return MISSING_ID + ThreadLocalRandom.current().nextInt(1_000_000);
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 404)
+            throw new IllegalStateException("GET " + path + " -> " + response.statusCode());
+        return response.body().length;
+    }
+}
@@ -0,0 +1,40 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.entities.Pet;
+import com.tecsup.petclinic.mappers.PetMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PetMapperBenchmark {
+
+    private final PetMapper petMapper = Mappers.getMapper(PetMapper.class);
+
+    private Pet pet;
+    private PetDTO petDTO;
+
+    @Setup
+    public void setUp() {
+        pet = new Pet(1, "Leo", 1, 1, LocalDate.of(2000, 9, 7));
+        petDTO = petMapper.mapToDto(pet);
+    }
+
+    @Benchmark
+    public PetDTO mapToDto() {
+        return petMapper.mapToDto(pet);
+    }
+
+    @Benchmark
+    public Pet mapToEntity() {
+        return petMapper.mapToEntity(petDTO);
+    }
+}
@@ -0,0 +1,49 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.entities.Pet;
+import com.tecsup.petclinic.services.PetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PetServiceBenchmark {
+
+    @Param("10000")
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private PetService petService;
+    private int owners;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start(rows);
+        petService = context.getBean(PetService.class);
+        owners = BenchmarkDatabase.owners(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<PetDTO> findByName() {
+        return petService.findByName(BenchmarkDatabase.petName(next++));
+    }
+
+    @Benchmark
+    public List<Pet> findByOwnerId() {
+        return petService.findByOwnerId(BenchmarkDatabase.ID_OFFSET + (next++ % owners));
+    }
+}
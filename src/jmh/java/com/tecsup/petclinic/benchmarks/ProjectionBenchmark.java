@@ -0,0 +1,66 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.tecsup.petclinic.dtos.VisitDTO;
+import com.tecsup.petclinic.entities.Visit;
+import com.tecsup.petclinic.repositories.VisitRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading every visit (rows of them) as managed entities, in a read-only and in a read-write
+ * transaction, against the VisitDTO constructor projection now used by GET /visits.
+ * Run with {@code -prof gc}: gc.alloc.rate.norm is the allocation per read of all the rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+
+    @Param("10000")
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private VisitRepository visitRepository;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start(rows);
+        visitRepository = context.getBean(VisitRepository.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Como estaba GET /visits: entidades en una transacción de solo lectura (sin snapshots)
+    @Benchmark
+    public List<Visit> entitiesReadOnly() {
+        return readOnly.execute(status -> visitRepository.findAll());
+    }
+
+    // Entidades con dirty checking: snapshot por fila y comparación al hacer flush en el commit
+    @Benchmark
+    public List<Visit> entitiesReadWrite() {
+        return readWrite.execute(status -> visitRepository.findAll());
+    }
+
+    @Benchmark
+    public List<VisitDTO> projection() {
+        return readOnly.execute(status -> visitRepository.findAllDTOs());
+    }
+}
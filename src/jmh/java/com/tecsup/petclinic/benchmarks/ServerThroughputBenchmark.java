@@ -0,0 +1,95 @@
+package com.tecsup.petclinic.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady-state requests/s of the application in its own process, JVM jar against the
+ * native image (see {@link ApplicationProcess}), on the seeded h2 data: GET /types and
+ * GET /owners/{id}, with and without the serialized-response cache (petclinic.response-cache).
+ * rssMb is the RSS of the server at the end of each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class ServerThroughputBenchmark {
+
+    // Owners de data.sql
+    private static final int OWNERS = 10;
+
+    @Param({"default", "native"})
+    public String mode;
+
+    @Param("h2")
+    public String profiles;
+
+    @Param({"true", "false"})
+    public String responseCache;
+
+    private ApplicationProcess application;
+    private HttpClient client;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Memory {
+        public double rssMb;
+
+        private int iterations;
+
+        @Setup(Level.Trial)
+        public void setUp(BenchmarkParams params) {
+            iterations = params.getMeasurement().getCount();
+        }
+
+        // Una sola muestra por iteración: EVENTS suma los valores de todos los hilos
+        // y de todas las iteraciones de medida, así que cada una aporta su parte de la media
+        @TearDown(Level.Iteration)
+        public void sample(ServerThroughputBenchmark benchmark, ThreadParams thread) throws IOException {
+            rssMb = thread.getThreadIndex() == 0 ? benchmark.application.rssMb() / iterations : 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        ApplicationProcess.checkBuilt(mode);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        application = ApplicationProcess.start(mode, profiles, "petclinic.response-cache.enabled=" + responseCache);
+        application.awaitFirstRequest(client, "/types");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        application.stop();
+    }
+
+    @Benchmark
+    public int getTypes(Memory memory) throws IOException, InterruptedException {
+        return get("/types");
+    }
+
+    @Benchmark
+    public int getOwner(Memory memory) throws IOException, InterruptedException {
+        return get("/owners/" + (1 + ThreadLocalRandom.current().nextInt(OWNERS)));
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(application.baseUrl() + path)).GET().build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200)
+            throw new IllegalStateException("GET " + path + " -> " + response.statusCode());
+        return response.body().length;
+    }
+}
@@ -0,0 +1,85 @@
+package com.tecsup.petclinic.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from launching the process to the first successful GET /types, with the latency
+ * of that first request (firstRequestMs) and the RSS of the process at that moment (rssMb)
+ * as secondary results, for each build of {@link ApplicationProcess}: plain JVM, AppCDS,
+ * Spring AOT, AOT with its own archive, and the GraalVM native image.
+ * Pick the modes that were built with e.g. {@code -p mode=default,aot-cds}; RSS is read from /proc (Linux).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    @Param({"default", "cds", "aot", "aot-cds", "native"})
+    public String mode;
+
+    @Param("h2")
+    public String profiles;
+
+    private HttpClient client;
+    private ApplicationProcess application;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Startup {
+        public double firstRequestMs;
+        public double rssMb;
+
+        private int iterations;
+
+        @Setup(Level.Trial)
+        public void setUp(BenchmarkParams params) {
+            iterations = params.getMeasurement().getCount();
+        }
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            firstRequestMs = 0;
+            rssMb = 0;
+        }
+
+        // EVENTS se suma entre las iteraciones de medida: cada una aporta su parte de la media
+        void record(double firstRequestMillis, double rss) {
+            firstRequestMs = firstRequestMillis / iterations;
+            rssMb = rss / iterations;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ApplicationProcess.checkBuilt(mode);
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() throws InterruptedException {
+        if (application != null) {
+            application.stop();
+            application = null;
+        }
+    }
+
+    @Benchmark
+    public int firstRequest(Startup startup) throws IOException, InterruptedException {
+        application = ApplicationProcess.start(mode, profiles);
+        int length = application.awaitFirstRequest(client, "/types").body().length;
+        startup.record(application.firstRequestMillis(), application.rssMb());
+        return length;
+    }
+}
@@ -0,0 +1,89 @@
+package com.tecsup.petclinic.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests/s and latency percentiles (SampleTime reports p0.99) of GET /visits/{id}
+ * and POST /visits over HTTP, with Tomcat on platform threads or on virtual threads.
+ * virtualThreads=true needs JDK 21 (build with -Pjava21). Client concurrency is
+ * the JMH thread count; compare e.g. -t 50 and -t 400 against tomcatThreads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(200)
+@Fork(1)
+public class VisitHttpBenchmark {
+
+    @Param("10000")
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    // Tamaño del pool de Tomcat cuando no se usan hilos virtuales
+    @Param("200")
+    public int tomcatThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private int pets;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (virtualThreads && Runtime.version().feature() < 21)
+            throw new IllegalStateException("virtualThreads=true needs JDK 21+ (build with -Pjava21)");
+
+        context = BenchmarkDatabase.startServer(rows,
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--server.tomcat.threads.max=" + tomcatThreads);
+        baseUrl = "http://localhost:" + BenchmarkDatabase.port(context) + "/visits";
+        pets = BenchmarkDatabase.pets(rows);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getVisit() throws IOException, InterruptedException {
+        int id = BenchmarkDatabase.ID_OFFSET + ThreadLocalRandom.current().nextInt(rows);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).GET().build();
+        return send(request, 200);
+    }
+
+    @Benchmark
+    public int createVisit() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String body = "{\"petId\":" + (BenchmarkDatabase.ID_OFFSET + random.nextInt(pets))
+                + ",\"vetId\":" + (1 + random.nextInt(6))
+                + ",\"visitDate\":\"" + BenchmarkDatabase.FIRST_VISIT_DATE.plusDays(random.nextInt(BenchmarkDatabase.VISIT_DAYS))
+                + "\",\"description\":\"bench\",\"cost\":" + (20 + random.nextInt(300)) + "}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return send(request, 201);
+    }
+
+    private int send(HttpRequest request, int expectedStatus) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != expectedStatus)
+            throw new IllegalStateException(request.method() + " " + request.uri() + " -> " + response.statusCode());
+        return response.body().length;
+    }
+}
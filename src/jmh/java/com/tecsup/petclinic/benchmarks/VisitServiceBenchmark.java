@@ -0,0 +1,47 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.tecsup.petclinic.entities.Visit;
+import com.tecsup.petclinic.services.VisitService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VisitServiceBenchmark {
+
+    @Param("10000")
+    public int rows;
+
+    // Tamaño de la ventana consultada en días
+    @Param("30")
+    public int days;
+
+    private ConfigurableApplicationContext context;
+    private VisitService visitService;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start(rows);
+        visitService = context.getBean(VisitService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Visit> findByDateRange() {
+        LocalDate start = BenchmarkDatabase.FIRST_VISIT_DATE.plusDays(next++ % BenchmarkDatabase.VISIT_DAYS);
+        return visitService.findByDateRange(start, start.plusDays(days - 1));
+    }
+}
@@ -0,0 +1,127 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.tecsup.petclinic.dtos.OwnerDTO;
+import com.tecsup.petclinic.dtos.VisitDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * What a sync job pulling {@code size} visits or owners costs per format: JSON, Smile and
+ * CBOR (the representations negotiated through Accept), each identity or gzip as
+ * ResponseCompressionFilter sends it. write is the server side (serialize, then compress),
+ * read the client side; the bytes counter is the body size on the wire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    @Param({"visits", "owners"})
+    public String payload;
+
+    @Param("10000")
+    public int size;
+
+    private ObjectMapper mapper;
+    private ObjectReader reader;
+    private List<?> rows;
+    private byte[] wire;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Wire {
+        public double bytes;
+
+        private int iterations;
+
+        @Setup(Level.Trial)
+        public void setUp(BenchmarkParams params) {
+            iterations = params.getMeasurement().getCount();
+        }
+
+        // EVENTS se suma entre las iteraciones de medida: cada una aporta su parte del tamaño
+        void record(int length) {
+            bytes = (double) length / iterations;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Mismos valores por defecto que los conversores de la aplicación (BinaryFormatsConfig)
+        mapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+        rows = "visits".equals(payload) ? visits(size) : owners(size);
+        reader = mapper.readerForListOf("visits".equals(payload) ? VisitDTO.class : OwnerDTO.class);
+        wire = encode();
+    }
+
+    @Benchmark
+    public byte[] write(Wire counter) throws IOException {
+        byte[] body = encode();
+        counter.record(body.length);
+        return body;
+    }
+
+    @Benchmark
+    public List<?> read() throws IOException {
+        InputStream bytes = new ByteArrayInputStream(wire);
+        try (InputStream in = gzip ? new GZIPInputStream(bytes, 8192) : bytes) {
+            return reader.readValue(in);
+        }
+    }
+
+    private byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        // Mismo compresor que ResponseCompressionFilter (nivel por defecto, búfer de 8 KB)
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes, 8192, true) : bytes) {
+            mapper.writeValue(out, rows);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<VisitDTO> visits(int size) {
+        String[] descriptions = {"rabies shot", "neutered", "spayed", "annual checkup", "dental cleaning"};
+        List<VisitDTO> visits = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++)
+            visits.add(new VisitDTO(i, 1 + i % 13, 1 + i % 6, LocalDate.of(2015, 1, 1).plusDays(i % 3000),
+                    descriptions[i % descriptions.length], 20.0 + i % 300, i % 4));
+        return visits;
+    }
+
+    private static List<OwnerDTO> owners(int size) {
+        String[] cities = {"Madison", "Sun Prairie", "McFarland", "Windsor", "Monona"};
+        List<OwnerDTO> owners = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++)
+            owners.add(new OwnerDTO((long) i, "First" + i, "Last" + i, i + " W. Liberty St.",
+                    cities[i % cities.length], String.format("608555%04d", i % 10000), 0));
+        return owners;
+    }
+}
@@ -0,0 +1,64 @@
+package com.tecsup.petclinic.aot;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.tecsup.petclinic.dtos.OwnerDTO;
+import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.dtos.PetTypeDTO;
+import com.tecsup.petclinic.dtos.SpecialtyDTO;
+import com.tecsup.petclinic.dtos.VetDTO;
+import com.tecsup.petclinic.dtos.VetSpecialtyDTO;
+import com.tecsup.petclinic.dtos.VisitDTO;
+import com.tecsup.petclinic.dtos.VisitStatsDTO;
+import com.tecsup.petclinic.entities.Visit;
+import com.tecsup.petclinic.entities.VisitDailyStatsId;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Native-image hints for what Spring AOT cannot infer from the bean definitions:
+ * JDK proxies created at runtime, classes instantiated by name and types read
+ * with {@code ObjectMapper.treeToValue}. Library metadata (Hibernate, H2, Caffeine)
+ * comes from the GraalVM reachability metadata repository.
+ */
+public class PetClinicRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // datasource-proxy (SqlTimingDataSourcePostProcessor): mismas interfaces y orden que JdkJdbcProxyFactory
+        for (Class<?> jdbcType : new Class<?>[] {Connection.class, Statement.class, PreparedStatement.class,
+                CallableStatement.class, ResultSet.class})
+            hints.proxies().registerJdkProxy(ProxyJdbcObject.class, jdbcType);
+
+        // LazyConnectionDataSourceProxy (ReadWriteRoutingDataSource)
+        hints.proxies().registerJdkProxy(ConnectionProxy.class);
+
+        // Constructores de las consultas "select new"
+        for (Class<?> row : new Class<?>[] {VisitStatsDTO.class, VisitDailyStatsId.class, OwnerDTO.class, PetDTO.class,
+                PetTypeDTO.class, SpecialtyDTO.class, VetDTO.class, VetSpecialtyDTO.class, VisitDTO.class})
+            hints.reflection().registerType(row, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        // Cuerpos de PATCH (treeToValue) y filas de GET /visits/stream: fuera de la firma del controlador
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                OwnerDTO.class, VetDTO.class, VisitDTO.class, PetTypeDTO.class, SpecialtyDTO.class, PetDTO.class);
+
+        // POST /visits/bulk lee cada elemento (JSON o CSV) directamente como entidad
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), Visit.class);
+
+        // Caché de segundo nivel: Hibernate y JCache cargan el proveedor por nombre (application.yml)
+        hints.reflection().registerType(JCacheRegionFactory.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.reflection().registerType(CaffeineCachingProvider.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("caffeine.conf");
+        hints.resources().registerPattern("reference.conf");
+    }
+}
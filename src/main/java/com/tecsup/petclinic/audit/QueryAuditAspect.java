@@ -0,0 +1,117 @@
+package com.tecsup.petclinic.audit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs one summary event per {@code PetService} call (method, args, row count, duration)
+ * to the {@code petclinic.audit} logger. Calls are sampled and rate limited, and row
+ * payloads are only written when {@code petclinic.audit.include-rows} is on.
+ */
+@Aspect
+@Component
+public class QueryAuditAspect {
+
+    static final String LOGGER_NAME = "petclinic.audit";
+
+    private static final Logger audit = LoggerFactory.getLogger(LOGGER_NAME);
+
+    @Autowired
+    private QueryAuditProperties properties;
+
+    private final AtomicLong window = new AtomicLong();
+    private final AtomicInteger eventsInWindow = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Around("execution(* com.tecsup.petclinic.services.PetService.*(..))")
+    public Object audit(ProceedingJoinPoint joinPoint) throws Throwable {
+
+        if (!properties.isEnabled() || !audit.isInfoEnabled() || !sampled()) {
+            return joinPoint.proceed();
+        }
+
+        long start = System.nanoTime();
+        Object result = null;
+        Throwable error = null;
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } catch (Throwable t) {
+            error = t;
+            throw t;
+        } finally {
+            if (tryAcquire()) {
+                log(joinPoint, result, error, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private boolean sampled() {
+        double rate = properties.getSampleRate();
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    /**
+     * Fixed one-second window: at most {@code maxEventsPerSecond} events are written,
+     * the rest are counted and reported on the next event that gets through.
+     */
+    private boolean tryAcquire() {
+        long second = System.currentTimeMillis() / 1000;
+        long current = window.get();
+        if (second != current && window.compareAndSet(current, second)) {
+            eventsInWindow.set(0);
+        }
+        if (eventsInWindow.incrementAndGet() <= properties.getMaxEventsPerSecond()) {
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    private void log(ProceedingJoinPoint joinPoint, Object result, Throwable error, long elapsedNanos) {
+
+        String method = joinPoint.getSignature().getName();
+        String args = truncate(Arrays.toString(joinPoint.getArgs()));
+        long durationMicros = TimeUnit.NANOSECONDS.toMicros(elapsedNanos);
+        long skipped = dropped.getAndSet(0);
+
+        if (error != null) {
+            audit.info("method={} args={} outcome=error error={} durationUs={} dropped={}",
+                    method, args, error.getClass().getSimpleName(), durationMicros, skipped);
+        } else if (properties.isIncludeRows()) {
+            audit.info("method={} args={} outcome=ok rows={} durationUs={} dropped={} result={}",
+                    method, args, rowCount(result), durationMicros, skipped, truncate(String.valueOf(result)));
+        } else {
+            audit.info("method={} args={} outcome=ok rows={} durationUs={} dropped={}",
+                    method, args, rowCount(result), durationMicros, skipped);
+        }
+    }
+
+    private static int rowCount(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Slice<?> page) {
+            return page.getNumberOfElements();
+        }
+        return result instanceof Collection<?> rows ? rows.size() : 1;
+    }
+
+    private String truncate(String value) {
+        int max = properties.getMaxPayloadLength();
+        return value.length() <= max ? value : value.substring(0, max) + "...";
+    }
+}
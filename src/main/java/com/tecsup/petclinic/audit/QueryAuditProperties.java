@@ -0,0 +1,28 @@
+package com.tecsup.petclinic.audit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for {@link QueryAuditAspect}, bound from {@code petclinic.audit.*}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "petclinic.audit")
+public class QueryAuditProperties {
+
+    private boolean enabled = true;
+
+    // Fracción de llamadas auditadas (0.0 - 1.0)
+    private double sampleRate = 1.0;
+
+    // Máximo de eventos por segundo; el resto se cuenta como descartado
+    private int maxEventsPerSecond = 100;
+
+    // Incluir el resultado completo en el evento (costoso: usa toString() de cada fila)
+    private boolean includeRows = false;
+
+    // Longitud máxima de args/rows en el mensaje
+    private int maxPayloadLength = 512;
+}
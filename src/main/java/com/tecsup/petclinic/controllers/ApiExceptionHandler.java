@@ -0,0 +1,31 @@
+package com.tecsup.petclinic.controllers;
+
+import com.tecsup.petclinic.exceptions.NotFoundException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+
+/**
+ * Errors of every controller as RFC 7807 {@code application/problem+json} bodies.
+ * Spring MVC's own exceptions (bad parameters, unsupported methods...) are handled
+ * by {@link ResponseEntityExceptionHandler} with the same format.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler extends ResponseEntityExceptionHandler {
+
+    // Sin log: un id inexistente es una respuesta normal, no un fallo del servidor
+    @ExceptionHandler(NotFoundException.class)
+    public ProblemDetail notFound(NotFoundException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage());
+    }
+
+    // Otra petición modificó el registro entre la lectura y la escritura, o If-Match no coincide
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ProblemDetail modifiedConcurrently(ObjectOptimisticLockingFailureException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.PRECONDITION_FAILED,
+                "The record was modified by another request");
+    }
+}
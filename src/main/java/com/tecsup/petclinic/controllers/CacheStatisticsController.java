@@ -0,0 +1,42 @@
+package com.tecsup.petclinic.controllers;
+
+import com.tecsup.petclinic.dtos.CacheStatisticsDTO;
+import com.tecsup.petclinic.dtos.CacheStatisticsDTO.RegionStatistics;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/cache")
+@Slf4j
+public class CacheStatisticsController {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @GetMapping("/statistics")
+    public ResponseEntity<CacheStatisticsDTO> statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        CacheStatisticsDTO dto = new CacheStatisticsDTO();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics stats = statistics.getDomainDataRegionStatistics(region);
+            dto.getRegions().put(region, new RegionStatistics(
+                    stats.getHitCount(), stats.getMissCount(), stats.getPutCount(), stats.getElementCountInMemory()));
+        }
+        CacheRegionStatistics queries = statistics.getQueryRegionStatistics(
+                RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+        if (queries != null)
+            dto.setQueries(new RegionStatistics(
+                    queries.getHitCount(), queries.getMissCount(), queries.getPutCount(), queries.getElementCountInMemory()));
+        return ResponseEntity.ok(dto);
+    }
+}
@@ -1,13 +1,22 @@
 package com.tecsup.petclinic.controllers;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tecsup.petclinic.dtos.OwnerDTO;
+import com.tecsup.petclinic.dtos.OwnerSummaryDTO;
 import com.tecsup.petclinic.entities.Owner;
 import com.tecsup.petclinic.exceptions.OwnerNotFoundException;
+import com.tecsup.petclinic.mappers.OwnerMapper;
 import com.tecsup.petclinic.services.OwnerService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -16,54 +25,90 @@ import java.util.List;
 @Slf4j
 public class OwnerController {
 
+    private static final int DEFAULT_VISITS_PER_PET = 5;
+    private static final int MAX_VISITS_PER_PET = 50;
+
     @Autowired
     private OwnerService ownerService;
 
+    @Autowired
+    private OwnerMapper ownerMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
-    public ResponseEntity<List<Owner>> findAll() {
-        List<Owner> owners = ownerService.findAll();
+    public ResponseEntity<List<OwnerDTO>> findAll() {
+        List<OwnerDTO> owners = ownerService.findAll();
         return ResponseEntity.ok(owners);
     }
 
+    /**
+     * Con If-None-Match solo se consulta la versión: si coincide se responde
+     * 304 sin cargar ni serializar el propietario.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Owner> findById(@PathVariable Long id) {
-        try {
-            Owner owner = ownerService.findById(id);
-            return ResponseEntity.ok(owner);
-        } catch (OwnerNotFoundException e) {
-            return ResponseEntity.notFound().build();
+    public ResponseEntity<OwnerDTO> findById(@PathVariable Long id, WebRequest request) throws OwnerNotFoundException {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            String eTag = VersionETag.of(ownerService.findVersion(id));
+            if (request.checkNotModified(eTag))
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
         }
+        Owner owner = ownerService.findById(id);
+        return ResponseEntity.ok().eTag(VersionETag.of(owner.getVersion())).body(ownerMapper.mapToDto(owner));
+    }
+
+    /**
+     * Propietario, sus mascotas y las últimas {@code visits} visitas de cada una
+     * (máximo {@value #MAX_VISITS_PER_PET}), con a lo sumo tres consultas SQL.
+     */
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<OwnerSummaryDTO> findSummary(@PathVariable Long id,
+                                                       @RequestParam(required = false) Integer visits) throws OwnerNotFoundException {
+        int visitsPerPet = (visits == null || visits < 0) ? DEFAULT_VISITS_PER_PET : Math.min(visits, MAX_VISITS_PER_PET);
+        return ResponseEntity.ok(ownerService.findSummary(id, visitsPerPet));
     }
 
     @PostMapping
-    public ResponseEntity<Owner> create(@RequestBody Owner owner) {
-        Owner newOwner = ownerService.create(owner);
-        return ResponseEntity.status(HttpStatus.CREATED).body(newOwner);
+    public ResponseEntity<OwnerDTO> create(@RequestBody OwnerDTO owner) {
+        Owner newOwner = ownerService.create(ownerMapper.mapToEntity(owner));
+        return ResponseEntity.status(HttpStatus.CREATED).body(ownerMapper.mapToDto(newOwner));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Owner> update(@PathVariable Long id, @RequestBody Owner owner) {
-        try {
-            Owner existingOwner = ownerService.findById(id);
-            existingOwner.setFirstName(owner.getFirstName());
-            existingOwner.setLastName(owner.getLastName());
-            existingOwner.setAddress(owner.getAddress());
-            existingOwner.setCity(owner.getCity());
-            existingOwner.setTelephone(owner.getTelephone());
-            Owner updatedOwner = ownerService.update(existingOwner);
-            return ResponseEntity.ok(updatedOwner);
-        } catch (OwnerNotFoundException e) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<OwnerDTO> update(@PathVariable Long id, @RequestBody OwnerDTO owner, WebRequest request) throws OwnerNotFoundException {
+        Owner existingOwner = ownerService.findById(id);
+        // If-Match con otra versión: 412 en lugar de pisar un cambio ajeno
+        if (request.checkNotModified(VersionETag.of(existingOwner.getVersion())))
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        ownerMapper.updateEntity(owner, existingOwner);
+        Owner updatedOwner = ownerService.update(existingOwner);
+        return ResponseEntity.ok().eTag(VersionETag.of(updatedOwner.getVersion())).body(ownerMapper.mapToDto(updatedOwner));
     }
 
-    @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
+    /**
+     * Solo se escriben las propiedades presentes en el cuerpo, con un único UPDATE
+     * (con If-Match, condicionado además a la versión).
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patch(@PathVariable Long id, @RequestBody ObjectNode changes,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws OwnerNotFoundException {
         try {
-            ownerService.delete(id);
+            Owner values = ownerMapper.mapToEntity(objectMapper.treeToValue(changes, OwnerDTO.class));
+            ownerService.patch(id, values, PatchFields.of(changes), VersionETag.parse(ifMatch));
             return ResponseEntity.noContent().build();
-        } catch (OwnerNotFoundException e) {
-            return ResponseEntity.notFound().build();
+        } catch (JsonProcessingException | IllegalArgumentException | DataIntegrityViolationException e) {
+            return ResponseEntity.badRequest().build();
         }
     }
+
+    /**
+     * Un único DELETE; con If-Match la versión forma parte del WHERE.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws OwnerNotFoundException {
+        ownerService.delete(id, VersionETag.parse(ifMatch));
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
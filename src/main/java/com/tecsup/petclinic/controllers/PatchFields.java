@@ -0,0 +1,24 @@
+package com.tecsup.petclinic.controllers;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Names of the properties present in a PATCH body: only those columns are written,
+ * absent properties keep their stored value and explicit nulls clear it.
+ * A value the database rejects (null in a NOT NULL column, an unknown foreign key)
+ * makes the controller answer 400.
+ */
+final class PatchFields {
+
+    private PatchFields() {
+    }
+
+    static List<String> of(ObjectNode changes) {
+        List<String> fields = new ArrayList<>(changes.size());
+        changes.fieldNames().forEachRemaining(fields::add);
+        return fields;
+    }
+}
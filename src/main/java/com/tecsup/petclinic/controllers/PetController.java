@@ -0,0 +1,105 @@
+package com.tecsup.petclinic.controllers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.exceptions.PetNotFoundException;
+import com.tecsup.petclinic.services.PetService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/pets")
+@Slf4j
+public class PetController {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Propiedades por las que se puede ordenar: las de PetDTO, que la consulta proyecta
+    private static final Set<String> SORTABLE = Arrays.stream(PetDTO.class.getRecordComponents())
+            .map(RecordComponent::getName)
+            .collect(Collectors.toUnmodifiableSet());
+
+    @Autowired
+    private PetService petService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Página de mascotas como PetDTO (JSON plano, sin HAL). {@code ownerId}, {@code typeId}
+     * y {@code name} son filtros opcionales; {@code size} se limita a {@value #MAX_PAGE_SIZE}.
+     * {@code sort} admite las propiedades de PetDTO; cualquier otra responde 400.
+     */
+    @GetMapping
+    public ResponseEntity<PagedModel<PetDTO>> findAll(@RequestParam(required = false) Integer ownerId,
+                                                      @RequestParam(required = false) Integer typeId,
+                                                      @RequestParam(required = false) String name,
+                                                      @PageableDefault(size = DEFAULT_PAGE_SIZE, sort = "id") Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE.contains(order.getProperty()))
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown sort property: " + order.getProperty());
+        }
+        if (pageable.getPageSize() > MAX_PAGE_SIZE)
+            pageable = PageRequest.of(pageable.getPageNumber(), MAX_PAGE_SIZE, pageable.getSort());
+
+        Page<PetDTO> pets = petService.findPage(ownerId, typeId, name, pageable);
+        return ResponseEntity.ok(new PagedModel<>(pets));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<PetDTO> findById(@PathVariable Integer id) throws PetNotFoundException {
+        PetDTO pet = petService.findById(id);
+        return ResponseEntity.ok(pet);
+    }
+
+    @PostMapping
+    public ResponseEntity<PetDTO> create(@RequestBody PetDTO pet) {
+        PetDTO newPet = petService.create(pet.toBuilder().id(null).build());
+        return ResponseEntity.status(HttpStatus.CREATED).body(newPet);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<PetDTO> update(@PathVariable Integer id, @RequestBody PetDTO pet) throws PetNotFoundException {
+        petService.findById(id);
+        PetDTO updatedPet = petService.update(pet.toBuilder().id(id).build());
+        return ResponseEntity.ok(updatedPet);
+    }
+
+    /**
+     * Solo se escriben las propiedades presentes en el cuerpo, con un único UPDATE.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patch(@PathVariable Integer id, @RequestBody ObjectNode changes) throws PetNotFoundException {
+        try {
+            petService.patch(id, objectMapper.treeToValue(changes, PetDTO.class), PatchFields.of(changes));
+            return ResponseEntity.noContent().build();
+        } catch (JsonProcessingException | IllegalArgumentException | DataIntegrityViolationException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Integer id) throws PetNotFoundException {
+        petService.delete(id);
+        return ResponseEntity.noContent().build();
+    }
+}
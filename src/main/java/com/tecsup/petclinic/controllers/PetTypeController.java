@@ -1,11 +1,17 @@
 
 package com.tecsup.petclinic.controllers;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tecsup.petclinic.dtos.PetTypeDTO;
 import com.tecsup.petclinic.entities.PetType;
 import com.tecsup.petclinic.exceptions.PetTypeNotFoundException;
+import com.tecsup.petclinic.mappers.PetTypeMapper;
 import com.tecsup.petclinic.services.PetTypeService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,47 +26,54 @@ public class PetTypeController {
     @Autowired
     private PetTypeService petTypeService;
 
+    @Autowired
+    private PetTypeMapper petTypeMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
-    public ResponseEntity<List<PetType>> findAll() {
-        List<PetType> petTypes = petTypeService.findAll();
+    public ResponseEntity<List<PetTypeDTO>> findAll() {
+        List<PetTypeDTO> petTypes = petTypeService.findAll();
         return ResponseEntity.ok(petTypes);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<PetType> findById(@PathVariable Long id) {
-        try {
-            PetType petType = petTypeService.findById(id);
-            return ResponseEntity.ok(petType);
-        } catch (PetTypeNotFoundException e) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<PetTypeDTO> findById(@PathVariable Long id) throws PetTypeNotFoundException {
+        PetType petType = petTypeService.findById(id);
+        return ResponseEntity.ok(petTypeMapper.mapToDto(petType));
     }
 
     @PostMapping
-    public ResponseEntity<PetType> create(@RequestBody PetType petType) {
-        PetType newPetType = petTypeService.create(petType);
-        return ResponseEntity.status(HttpStatus.CREATED).body(newPetType);
+    public ResponseEntity<PetTypeDTO> create(@RequestBody PetTypeDTO petType) {
+        PetType newPetType = petTypeService.create(petTypeMapper.mapToEntity(petType));
+        return ResponseEntity.status(HttpStatus.CREATED).body(petTypeMapper.mapToDto(newPetType));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<PetType> update(@PathVariable Long id, @RequestBody PetType petType) {
-        try {
-            PetType existingPetType = petTypeService.findById(id);
-            existingPetType.setName(petType.getName());
-            PetType updatedPetType = petTypeService.update(existingPetType);
-            return ResponseEntity.ok(updatedPetType);
-        } catch (PetTypeNotFoundException e) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<PetTypeDTO> update(@PathVariable Long id, @RequestBody PetTypeDTO petType) throws PetTypeNotFoundException {
+        PetType existingPetType = petTypeService.findById(id);
+        petTypeMapper.updateEntity(petType, existingPetType);
+        PetType updatedPetType = petTypeService.update(existingPetType);
+        return ResponseEntity.ok(petTypeMapper.mapToDto(updatedPetType));
     }
 
-    @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
+    /**
+     * Solo se escriben las propiedades presentes en el cuerpo, con un único UPDATE.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patch(@PathVariable Long id, @RequestBody ObjectNode changes) throws PetTypeNotFoundException {
         try {
-            petTypeService.delete(id);
+            petTypeService.patch(id, petTypeMapper.mapToEntity(objectMapper.treeToValue(changes, PetTypeDTO.class)), PatchFields.of(changes));
             return ResponseEntity.noContent().build();
-        } catch (PetTypeNotFoundException e) {
-            return ResponseEntity.notFound().build();
+        } catch (JsonProcessingException | IllegalArgumentException | DataIntegrityViolationException e) {
+            return ResponseEntity.badRequest().build();
         }
     }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id) throws PetTypeNotFoundException {
+        petTypeService.delete(id);
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
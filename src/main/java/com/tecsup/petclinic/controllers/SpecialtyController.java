@@ -1,10 +1,16 @@
 package com.tecsup.petclinic.controllers;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tecsup.petclinic.dtos.SpecialtyDTO;
 import com.tecsup.petclinic.entities.Specialty;
 import com.tecsup.petclinic.exceptions.SpecialtyNotFoundException;
+import com.tecsup.petclinic.mappers.SpecialtyMapper;
 import com.tecsup.petclinic.services.SpecialtyService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,47 +25,54 @@ public class SpecialtyController {
     @Autowired
     private SpecialtyService specialtyService;
 
+    @Autowired
+    private SpecialtyMapper specialtyMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
-    public ResponseEntity<List<Specialty>> findAll() {
-        List<Specialty> specialties = specialtyService.findAll();
+    public ResponseEntity<List<SpecialtyDTO>> findAll() {
+        List<SpecialtyDTO> specialties = specialtyService.findAll();
         return ResponseEntity.ok(specialties);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Specialty> findById(@PathVariable Long id) {
-        try {
-            Specialty specialty = specialtyService.findById(id);
-            return ResponseEntity.ok(specialty);
-        } catch (SpecialtyNotFoundException e) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<SpecialtyDTO> findById(@PathVariable Long id) throws SpecialtyNotFoundException {
+        Specialty specialty = specialtyService.findById(id);
+        return ResponseEntity.ok(specialtyMapper.mapToDto(specialty));
     }
 
     @PostMapping
-    public ResponseEntity<Specialty> create(@RequestBody Specialty specialty) {
-        Specialty newSpecialty = specialtyService.create(specialty);
-        return ResponseEntity.status(HttpStatus.CREATED).body(newSpecialty);
+    public ResponseEntity<SpecialtyDTO> create(@RequestBody SpecialtyDTO specialty) {
+        Specialty newSpecialty = specialtyService.create(specialtyMapper.mapToEntity(specialty));
+        return ResponseEntity.status(HttpStatus.CREATED).body(specialtyMapper.mapToDto(newSpecialty));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Specialty> update(@PathVariable Long id, @RequestBody Specialty specialty) {
-        try {
-            Specialty existingSpecialty = specialtyService.findById(id);
-            existingSpecialty.setName(specialty.getName());
-            Specialty updatedSpecialty = specialtyService.update(existingSpecialty);
-            return ResponseEntity.ok(updatedSpecialty);
-        } catch (SpecialtyNotFoundException e) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<SpecialtyDTO> update(@PathVariable Long id, @RequestBody SpecialtyDTO specialty) throws SpecialtyNotFoundException {
+        Specialty existingSpecialty = specialtyService.findById(id);
+        specialtyMapper.updateEntity(specialty, existingSpecialty);
+        Specialty updatedSpecialty = specialtyService.update(existingSpecialty);
+        return ResponseEntity.ok(specialtyMapper.mapToDto(updatedSpecialty));
     }
 
-    @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
+    /**
+     * Solo se escriben las propiedades presentes en el cuerpo, con un único UPDATE.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patch(@PathVariable Long id, @RequestBody ObjectNode changes) throws SpecialtyNotFoundException {
         try {
-            specialtyService.delete(id);
+            specialtyService.patch(id, specialtyMapper.mapToEntity(objectMapper.treeToValue(changes, SpecialtyDTO.class)), PatchFields.of(changes));
             return ResponseEntity.noContent().build();
-        } catch (SpecialtyNotFoundException e) {
-            return ResponseEntity.notFound().build();
+        } catch (JsonProcessingException | IllegalArgumentException | DataIntegrityViolationException e) {
+            return ResponseEntity.badRequest().build();
         }
     }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id) throws SpecialtyNotFoundException {
+        specialtyService.delete(id);
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.tecsup.petclinic.controllers;
+
+/**
+ * Strong ETags derived from an entity's {@code @Version}: version 3 is {@code "3"}.
+ * Conditional headers are evaluated with {@code WebRequest.checkNotModified}.
+ */
+final class VersionETag {
+
+    private VersionETag() {
+    }
+
+    static String of(Integer version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Expected version from an {@code If-Match} header: null when absent or {@code *},
+     * and -1 (matches no row) for weak, malformed or multiple ETags.
+     */
+    static Integer parse(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*"))
+            return null;
+        String eTag = ifMatch.trim();
+        if (eTag.length() < 3 || eTag.charAt(0) != '"' || eTag.charAt(eTag.length() - 1) != '"')
+            return -1;
+        try {
+            return Integer.valueOf(eTag.substring(1, eTag.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
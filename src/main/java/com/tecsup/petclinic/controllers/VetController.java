@@ -1,13 +1,21 @@
 package com.tecsup.petclinic.controllers;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tecsup.petclinic.dtos.VetDTO;
 import com.tecsup.petclinic.entities.Vet;
 import com.tecsup.petclinic.exceptions.VetNotFoundException;
+import com.tecsup.petclinic.mappers.VetMapper;
 import com.tecsup.petclinic.services.VetService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -19,48 +27,70 @@ public class VetController {
     @Autowired
     private VetService vetService;
 
+    @Autowired
+    private VetMapper vetMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
-    public ResponseEntity<List<Vet>> findAll() {
-        List<Vet> vets = vetService.findAll();
+    public ResponseEntity<List<VetDTO>> findAll() {
+        List<VetDTO> vets = vetService.findAll();
         return ResponseEntity.ok(vets);
     }
 
+    /**
+     * Con If-None-Match que coincide con la versión se responde 304 sin serializar el veterinario.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Vet> findById(@PathVariable Long id) {
-        try {
-            Vet vet = vetService.findById(id);
-            return ResponseEntity.ok(vet);
-        } catch (VetNotFoundException e) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<VetDTO> findById(@PathVariable Long id, WebRequest request) throws VetNotFoundException {
+        Vet vet = vetService.findById(id);
+        String eTag = VersionETag.of(vet.getVersion());
+        if (request.checkNotModified(eTag))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        return ResponseEntity.ok().eTag(eTag).body(vetMapper.mapToDto(vet));
     }
 
     @PostMapping
-    public ResponseEntity<Vet> create(@RequestBody Vet vet) {
-        Vet newVet = vetService.create(vet);
-        return ResponseEntity.status(HttpStatus.CREATED).body(newVet);
+    public ResponseEntity<VetDTO> create(@RequestBody VetDTO vet) {
+        Vet newVet = vetService.create(vetMapper.mapToEntity(vet));
+        return ResponseEntity.status(HttpStatus.CREATED).body(vetMapper.mapToDto(newVet));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Vet> update(@PathVariable Long id, @RequestBody Vet vet) {
-        try {
-            Vet existingVet = vetService.findById(id);
-            existingVet.setFirstName(vet.getFirstName());
-            existingVet.setLastName(vet.getLastName());
-            Vet updatedVet = vetService.update(existingVet);
-            return ResponseEntity.ok(updatedVet);
-        } catch (VetNotFoundException e) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<VetDTO> update(@PathVariable Long id, @RequestBody VetDTO vet, WebRequest request) throws VetNotFoundException {
+        Vet existingVet = vetService.findById(id);
+        // If-Match con otra versión: 412 en lugar de pisar un cambio ajeno
+        if (request.checkNotModified(VersionETag.of(existingVet.getVersion())))
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        vetMapper.updateEntity(vet, existingVet);
+        Vet updatedVet = vetService.update(existingVet);
+        return ResponseEntity.ok().eTag(VersionETag.of(updatedVet.getVersion())).body(vetMapper.mapToDto(updatedVet));
     }
 
-    @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
+    /**
+     * Solo se escriben las propiedades presentes en el cuerpo, con un único UPDATE
+     * (con If-Match, condicionado además a la versión).
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patch(@PathVariable Long id, @RequestBody ObjectNode changes,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws VetNotFoundException {
         try {
-            vetService.delete(id);
+            Vet values = vetMapper.mapToEntity(objectMapper.treeToValue(changes, VetDTO.class));
+            vetService.patch(id, values, PatchFields.of(changes), VersionETag.parse(ifMatch));
             return ResponseEntity.noContent().build();
-        } catch (VetNotFoundException e) {
-            return ResponseEntity.notFound().build();
+        } catch (JsonProcessingException | IllegalArgumentException | DataIntegrityViolationException e) {
+            return ResponseEntity.badRequest().build();
         }
     }
+
+    /**
+     * Un único DELETE; con If-Match la versión forma parte del WHERE.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws VetNotFoundException {
+        vetService.delete(id, VersionETag.parse(ifMatch));
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
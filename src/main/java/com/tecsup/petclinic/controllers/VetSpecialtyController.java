@@ -1,10 +1,13 @@
 package com.tecsup.petclinic.controllers;
 
+import com.tecsup.petclinic.dtos.VetSpecialtyDTO;
 import com.tecsup.petclinic.entities.VetSpecialty;
 import com.tecsup.petclinic.exceptions.VetSpecialtyNotFoundException;
+import com.tecsup.petclinic.mappers.VetSpecialtyMapper;
 import com.tecsup.petclinic.services.VetSpecialtyService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,62 +22,71 @@ public class VetSpecialtyController {
     @Autowired
     private VetSpecialtyService vetSpecialtyService;
 
+    @Autowired
+    private VetSpecialtyMapper vetSpecialtyMapper;
+
     @GetMapping
-    public ResponseEntity<List<VetSpecialty>> findAll() {
-        List<VetSpecialty> vetSpecialties = vetSpecialtyService.findAll();
+    public ResponseEntity<List<VetSpecialtyDTO>> findAll() {
+        List<VetSpecialtyDTO> vetSpecialties = vetSpecialtyService.findAll();
         return ResponseEntity.ok(vetSpecialties);
     }
 
     @GetMapping("/{vetId}/{specialtyId}")
-    public ResponseEntity<VetSpecialty> findById(@PathVariable Long vetId, @PathVariable Long specialtyId) {
-        try {
-            VetSpecialty vetSpecialty = vetSpecialtyService.findById(vetId, specialtyId);
-            return ResponseEntity.ok(vetSpecialty);
-        } catch (VetSpecialtyNotFoundException e) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<VetSpecialtyDTO> findById(@PathVariable Long vetId, @PathVariable Long specialtyId) throws VetSpecialtyNotFoundException {
+        VetSpecialty vetSpecialty = vetSpecialtyService.findById(vetId, specialtyId);
+        return ResponseEntity.ok(vetSpecialtyMapper.mapToDto(vetSpecialty));
     }
 
     @GetMapping("/vet/{vetId}")
-    public ResponseEntity<List<VetSpecialty>> findByVetId(@PathVariable Long vetId) {
-        List<VetSpecialty> vetSpecialties = vetSpecialtyService.findByVetId(vetId);
+    public ResponseEntity<List<VetSpecialtyDTO>> findByVetId(@PathVariable Long vetId) {
+        List<VetSpecialtyDTO> vetSpecialties = vetSpecialtyService.findByVetId(vetId);
         return ResponseEntity.ok(vetSpecialties);
     }
 
     @GetMapping("/specialty/{specialtyId}")
-    public ResponseEntity<List<VetSpecialty>> findBySpecialtyId(@PathVariable Long specialtyId) {
-        List<VetSpecialty> vetSpecialties = vetSpecialtyService.findBySpecialtyId(specialtyId);
+    public ResponseEntity<List<VetSpecialtyDTO>> findBySpecialtyId(@PathVariable Long specialtyId) {
+        List<VetSpecialtyDTO> vetSpecialties = vetSpecialtyService.findBySpecialtyId(specialtyId);
         return ResponseEntity.ok(vetSpecialties);
     }
 
     @PostMapping
-    public ResponseEntity<VetSpecialty> create(@RequestBody VetSpecialty vetSpecialty) {
-        VetSpecialty newVetSpecialty = vetSpecialtyService.create(vetSpecialty);
-        return ResponseEntity.status(HttpStatus.CREATED).body(newVetSpecialty);
+    public ResponseEntity<VetSpecialtyDTO> create(@RequestBody VetSpecialtyDTO vetSpecialty) {
+        VetSpecialty newVetSpecialty = vetSpecialtyService.create(vetSpecialtyMapper.mapToEntity(vetSpecialty));
+        return ResponseEntity.status(HttpStatus.CREATED).body(vetSpecialtyMapper.mapToDto(newVetSpecialty));
     }
 
     @PutMapping("/{vetId}/{specialtyId}")
-    public ResponseEntity<VetSpecialty> update(@PathVariable Long vetId, @PathVariable Long specialtyId,
-                                               @RequestBody VetSpecialty vetSpecialty) {
+    public ResponseEntity<VetSpecialtyDTO> update(@PathVariable Long vetId, @PathVariable Long specialtyId,
+                                                  @RequestBody VetSpecialtyDTO vetSpecialty) throws VetSpecialtyNotFoundException {
         try {
-            VetSpecialty existingVetSpecialty = vetSpecialtyService.findById(vetId, specialtyId);
-            // Eliminar la relación anterior
-            vetSpecialtyService.delete(vetId, specialtyId);
-            // Crear la nueva relación
-            VetSpecialty updatedVetSpecialty = vetSpecialtyService.create(vetSpecialty);
-            return ResponseEntity.ok(updatedVetSpecialty);
-        } catch (VetSpecialtyNotFoundException e) {
-            return ResponseEntity.notFound().build();
+            // Una transacción: si el destino no es válido la relación original sigue intacta
+            VetSpecialty updatedVetSpecialty = vetSpecialtyService.move(vetId, specialtyId, vetSpecialtyMapper.mapToEntity(vetSpecialty));
+            return ResponseEntity.ok(vetSpecialtyMapper.mapToDto(updatedVetSpecialty));
+        } catch (DataIntegrityViolationException e) {
+            // Veterinario o especialidad de destino inexistentes
+            return ResponseEntity.badRequest().build();
         }
     }
 
-    @DeleteMapping("/{vetId}/{specialtyId}")
-    public ResponseEntity<Void> delete(@PathVariable Long vetId, @PathVariable Long specialtyId) {
+    /**
+     * Sustituye todas las especialidades del veterinario por {@code specialtyIds},
+     * escribiendo solo las relaciones que cambian.
+     */
+    @PutMapping("/vet/{vetId}")
+    public ResponseEntity<List<VetSpecialtyDTO>> replaceForVet(@PathVariable Long vetId, @RequestBody List<Long> specialtyIds) {
+        // Un elemento null no es una especialidad: 400 antes de tocar la base de datos
+        if (specialtyIds.contains(null))
+            return ResponseEntity.badRequest().build();
         try {
-            vetSpecialtyService.delete(vetId, specialtyId);
-            return ResponseEntity.noContent().build();
-        } catch (VetSpecialtyNotFoundException e) {
-            return ResponseEntity.notFound().build();
+            return ResponseEntity.ok(vetSpecialtyMapper.mapToDtos(vetSpecialtyService.replaceForVet(vetId, specialtyIds)));
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.badRequest().build();
         }
     }
+
+    @DeleteMapping("/{vetId}/{specialtyId}")
+    public ResponseEntity<Void> delete(@PathVariable Long vetId, @PathVariable Long specialtyId) throws VetSpecialtyNotFoundException {
+        vetSpecialtyService.delete(vetId, specialtyId);
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
@@ -1,15 +1,41 @@
 
 package com.tecsup.petclinic.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.tecsup.petclinic.dtos.VisitDTO;
+import com.tecsup.petclinic.dtos.VisitImportReport;
+import com.tecsup.petclinic.dtos.VisitStatsDTO;
 import com.tecsup.petclinic.entities.Visit;
 import com.tecsup.petclinic.exceptions.VisitNotFoundException;
+import com.tecsup.petclinic.mappers.VisitMapper;
 import com.tecsup.petclinic.services.VisitService;
+import com.tecsup.petclinic.web.BinaryFormatsConfig;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -17,52 +43,225 @@ import java.util.List;
 @Slf4j
 public class VisitController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-After";
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final List<MediaType> STREAM_FORMATS = List.of(MediaType.APPLICATION_NDJSON,
+            BinaryFormatsConfig.SMILE, BinaryFormatsConfig.CBOR_SEQ);
+
+    private static final int MAX_IMPORT_CHUNK_SIZE = 10000;
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .findAndAddModules()
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .build();
+
     @Autowired
     private VisitService visitService;
 
+    @Autowired
+    private VisitMapper visitMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Value("${petclinic.visits.import.chunk-size:500}")
+    private int defaultImportChunkSize;
+
+    /**
+     * Sin parámetros devuelve todas las visitas; con {@code after} y/o {@code limit}
+     * devuelve una página keyset ordenada por id. Si puede haber más filas, el id
+     * para pedir la siguiente página viaja en la cabecera {@value #NEXT_CURSOR_HEADER}.
+     */
     @GetMapping
-    public ResponseEntity<List<Visit>> findAll() {
-        List<Visit> visits = visitService.findAll();
-        return ResponseEntity.ok(visits);
+    public ResponseEntity<List<VisitDTO>> findAll(@RequestParam(required = false) Integer after,
+                                                  @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            List<VisitDTO> visits = visitService.findAll();
+            return ResponseEntity.ok(visits);
+        }
+
+        int pageSize = (limit == null || limit <= 0) ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        List<VisitDTO> visits = visitService.findAfter(after == null ? 0 : after, pageSize);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (visits.size() == pageSize)
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(visits.get(pageSize - 1).id()));
+        return response.body(visits);
+    }
+
+    /**
+     * Todas las visitas como NDJSON (una por línea), escritas mientras se leen de la base de datos.
+     * Con {@code Accept} Smile o CBOR las mismas filas van como valores binarios consecutivos
+     * (leer con {@code readValues}).
+     */
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE,
+            BinaryFormatsConfig.SMILE_VALUE, BinaryFormatsConfig.CBOR_SEQ_VALUE})
+    public void stream(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                       HttpServletResponse response) throws IOException {
+        MediaType format = streamFormat(accept);
+        ObjectMapper mapper = objectMapper;
+        if (format.equals(BinaryFormatsConfig.SMILE))
+            mapper = smileConverter.getObjectMapper();
+        else if (format.equals(BinaryFormatsConfig.CBOR_SEQ))
+            mapper = cborConverter.getObjectMapper();
+
+        response.setContentType(format.toString());
+        try (JsonGenerator generator = mapper.createGenerator(response.getOutputStream())) {
+            boolean ndjson = format.equals(MediaType.APPLICATION_NDJSON);
+            if (ndjson)
+                generator.setRootValueSeparator(null);
+            visitService.streamAll(visit -> {
+                try {
+                    generator.writeObject(visit);
+                    if (ndjson)
+                        generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
     }
 
+    // Primer tipo del Accept que es uno de los formatos de /stream; NDJSON si no hay ninguno concreto
+    private static MediaType streamFormat(String accept) {
+        if (accept != null) {
+            for (MediaType accepted : MediaType.parseMediaTypes(accept)) {
+                if (accepted.isWildcardType() || accepted.isWildcardSubtype())
+                    continue;
+                for (MediaType format : STREAM_FORMATS) {
+                    if (accepted.includes(format))
+                        return format;
+                }
+            }
+        }
+        return MediaType.APPLICATION_NDJSON;
+    }
+
+    /**
+     * Número de visitas e ingresos, agregados desde el resumen diario (visit_daily_stats).
+     * {@code groupBy}: day, week, month (por defecto), vet o type; {@code from}/{@code to} opcionales (yyyy-MM-dd).
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<List<VisitStatsDTO>> stats(@RequestParam(defaultValue = "month") String groupBy,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<VisitStatsDTO> stats = switch (groupBy) {
+            case "day" -> visitService.statsByPeriod(VisitStatsDTO.Period.DAY, from, to);
+            case "week" -> visitService.statsByPeriod(VisitStatsDTO.Period.WEEK, from, to);
+            case "month" -> visitService.statsByPeriod(VisitStatsDTO.Period.MONTH, from, to);
+            case "vet" -> visitService.statsByVet(from, to);
+            case "type" -> visitService.statsByPetType(from, to);
+            default -> null;
+        };
+        if (stats == null)
+            return ResponseEntity.badRequest().build();
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Recalcula el resumen diario (visit_daily_stats) desde la tabla visits, p. ej. tras una carga externa.
+     */
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<Integer> rebuildStats(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(visitService.rebuildDailyStats(from, to));
+    }
+
+    /**
+     * Con If-None-Match solo se consulta la versión: si coincide se responde
+     * 304 sin cargar ni serializar la visita.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Visit> findById(@PathVariable Integer id) {
-        try {
-            Visit visit = visitService.findById(id);
-            return ResponseEntity.ok(visit);
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
+    public ResponseEntity<VisitDTO> findById(@PathVariable Integer id, WebRequest request) throws VisitNotFoundException {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            String eTag = VersionETag.of(visitService.findVersion(id));
+            if (request.checkNotModified(eTag))
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
         }
+        Visit visit = visitService.findById(id);
+        return ResponseEntity.ok().eTag(VersionETag.of(visit.getVersion())).body(visitMapper.mapToDto(visit));
     }
 
     @PostMapping
-    public ResponseEntity<Visit> create(@RequestBody Visit visit) {
-        Visit newVisit = visitService.create(visit);
-        return ResponseEntity.status(HttpStatus.CREATED).body(newVisit);
+    public ResponseEntity<VisitDTO> create(@RequestBody VisitDTO visit) {
+        Visit newVisit = visitService.create(visitMapper.mapToEntity(visit));
+        return ResponseEntity.status(HttpStatus.CREATED).body(visitMapper.mapToDto(newVisit));
     }
 
-    @PutMapping("/{id}")
-    public ResponseEntity<Visit> update(@PathVariable Integer id, @RequestBody Visit visit) {
-        try {
-            Visit existingVisit = visitService.findById(id);
-            existingVisit.setVisitDate(visit.getVisitDate());
-            existingVisit.setDescription(visit.getDescription());
-            existingVisit.setPetId(visit.getPetId());
-            Visit updatedVisit = visitService.update(existingVisit);
-            return ResponseEntity.ok(updatedVisit);
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
+    /**
+     * Importa un arreglo JSON de visitas leyéndolo elemento a elemento.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<VisitImportReport> importJson(InputStream body,
+                                                        @RequestParam(required = false) Integer chunkSize) throws IOException {
+        try (MappingIterator<Visit> visits = objectMapper.readerFor(Visit.class).readValues(body)) {
+            return ResponseEntity.ok(visitService.importVisits(visits, importChunkSize(chunkSize)));
         }
     }
 
-    @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Integer id) {
+    /**
+     * Importa visitas en CSV con cabecera (petId,vetId,visitDate,description,cost) leyéndolo fila a fila.
+     */
+    @PostMapping(value = "/bulk", consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<VisitImportReport> importCsv(InputStream body,
+                                                       @RequestParam(required = false) Integer chunkSize) throws IOException {
+        CsvSchema schema = CsvSchema.emptySchema().withHeader();
+        try (MappingIterator<Visit> visits = CSV_MAPPER.readerFor(Visit.class).with(schema).readValues(body)) {
+            return ResponseEntity.ok(visitService.importVisits(visits, importChunkSize(chunkSize)));
+        }
+    }
+
+    private int importChunkSize(Integer chunkSize) {
+        if (chunkSize == null || chunkSize <= 0)
+            return defaultImportChunkSize;
+        return Math.min(chunkSize, MAX_IMPORT_CHUNK_SIZE);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<VisitDTO> update(@PathVariable Integer id, @RequestBody VisitDTO visit, WebRequest request) throws VisitNotFoundException {
+        Visit existingVisit = visitService.findById(id);
+        // If-Match con otra versión: 412 en lugar de pisar un cambio ajeno
+        if (request.checkNotModified(VersionETag.of(existingVisit.getVersion())))
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        visitMapper.updateEntity(visit, existingVisit);
+        Visit updatedVisit = visitService.update(existingVisit);
+        return ResponseEntity.ok().eTag(VersionETag.of(updatedVisit.getVersion())).body(visitMapper.mapToDto(updatedVisit));
+    }
+
+    /**
+     * Solo se escriben las propiedades presentes en el cuerpo, con un único UPDATE
+     * (con If-Match, condicionado además a la versión).
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patch(@PathVariable Integer id, @RequestBody ObjectNode changes,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws VisitNotFoundException {
         try {
-            visitService.delete(id);
+            Visit values = visitMapper.mapToEntity(objectMapper.treeToValue(changes, VisitDTO.class));
+            visitService.patch(id, values, PatchFields.of(changes), VersionETag.parse(ifMatch));
             return ResponseEntity.noContent().build();
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
+        } catch (JsonProcessingException | IllegalArgumentException | DataIntegrityViolationException e) {
+            return ResponseEntity.badRequest().build();
         }
     }
+
+    /**
+     * Un único DELETE; con If-Match la versión forma parte del WHERE.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Integer id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws VisitNotFoundException {
+        visitService.delete(id, VersionETag.parse(ifMatch));
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
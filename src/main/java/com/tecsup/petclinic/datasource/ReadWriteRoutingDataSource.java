@@ -0,0 +1,88 @@
+package com.tecsup.petclinic.datasource;
+
+import java.io.Closeable;
+import java.util.Map;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the primary.
+ * <p>
+ * The physical connection is fetched lazily, on the first statement: by then
+ * Spring has marked the transaction read-only, which is not yet the case when
+ * Hibernate asks for the connection at {@code begin}.
+ * Each routing decision is counted in {@code petclinic.datasource.routes}.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private final ReadYourWritesGuard guard;
+
+    private final Counter writes;
+    private final Counter reads;
+    private final Counter readYourWrites;
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, HikariDataSource replica,
+                                      ReadYourWritesGuard guard, MeterRegistry registry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.guard = guard;
+        this.writes = counter(registry, Route.PRIMARY, "write");
+        this.reads = counter(registry, Route.REPLICA, "read-only");
+        this.readYourWrites = counter(registry, Route.PRIMARY, "read-your-writes");
+
+        AbstractRoutingDataSource router = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return route();
+            }
+        };
+        router.setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        router.setDefaultTargetDataSource(primary);
+        router.afterPropertiesSet();
+        setTargetDataSource(router);
+    }
+
+    private static Counter counter(MeterRegistry registry, Route route, String reason) {
+        return Counter.builder("petclinic.datasource.routes")
+                .description("Physical connections handed out, by pool and reason")
+                .tag("route", route.name().toLowerCase())
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    Route route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            return Route.PRIMARY;
+        }
+        if (guard.primaryRequired()) {
+            readYourWrites.increment();
+            return Route.PRIMARY;
+        }
+        reads.increment();
+        return Route.REPLICA;
+    }
+
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    public HikariDataSource getReplica() {
+        return replica;
+    }
+
+    @Override
+    public void close() {
+        replica.close();
+        primary.close();
+    }
+}
@@ -0,0 +1,38 @@
+package com.tecsup.petclinic.datasource;
+
+import java.io.IOException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Binds each request to its client in {@link ReadYourWritesGuard}: the last write
+ * comes from the request cookie, and a write made while handling it sets the cookie.
+ * Only needed when reads are routed to a replica.
+ */
+@Component
+@ConditionalOnProperty(prefix = "petclinic.datasource.replica", name = "url")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final ReadYourWritesGuard guard;
+
+    public ReadYourWritesFilter(ReadYourWritesGuard guard) {
+        this.guard = guard;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        guard.begin(request, response);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            guard.end();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.tecsup.petclinic.datasource;
+
+import java.time.Duration;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+/**
+ * Remembers when the current client last committed a read-write transaction, so that
+ * its read-only transactions started within {@code petclinic.datasource.replica.max-lag}
+ * of it go to the primary and see the change even if the replica is behind.
+ * <p>
+ * The window belongs to the client that wrote: other clients keep reading from the replica.
+ * Over HTTP the client carries the time of its last write in the {@value #COOKIE} cookie,
+ * set on the response of the write and read back by {@link ReadYourWritesFilter}.
+ * Outside a request (schedulers, tests without MockMvc) the client is the thread.
+ * <p>
+ * Boot registers every {@link TransactionExecutionListener} bean on the transaction manager.
+ */
+@Component
+public class ReadYourWritesGuard implements TransactionExecutionListener {
+
+    public static final String COOKIE = "petclinic-last-write";
+
+    /**
+     * Client of the current thread: when it last wrote (epoch millis) and, inside
+     * a request, the response that takes the cookie.
+     */
+    private static final class Client {
+
+        private Long lastWrite;
+        private HttpServletResponse response;
+    }
+
+    private static final ThreadLocal<Client> CURRENT = ThreadLocal.withInitial(Client::new);
+
+    @Autowired
+    private ReplicaDataSourceProperties properties;
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (commitFailure == null && transaction.isNewTransaction() && !transaction.isReadOnly()) {
+            Client client = CURRENT.get();
+            client.lastWrite = System.currentTimeMillis();
+            if (client.response != null && !client.response.isCommitted() && properties.getMaxLag().toMillis() > 0)
+                client.response.addHeader(HttpHeaders.SET_COOKIE, cookie(client.lastWrite));
+        }
+    }
+
+    /**
+     * {@code true} while a write committed by the current client may not have reached the replica yet.
+     */
+    public boolean primaryRequired() {
+        Long lastWrite = CURRENT.get().lastWrite;
+        if (lastWrite == null)
+            return false;
+        // Una hora futura (cookie manipulada o relojes distintos) no alarga la ventana
+        long age = System.currentTimeMillis() - lastWrite;
+        return age >= 0 && age < properties.getMaxLag().toMillis();
+    }
+
+    /**
+     * Binds the thread to the client of {@code request}, until {@link #end()}.
+     */
+    void begin(HttpServletRequest request, HttpServletResponse response) {
+        Client client = new Client();
+        client.lastWrite = lastWrite(request);
+        client.response = response;
+        CURRENT.set(client);
+    }
+
+    void end() {
+        CURRENT.remove();
+    }
+
+    // Hora de la última escritura según la cookie; null si no viene o no es un número
+    private static Long lastWrite(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null)
+            return null;
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.valueOf(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Caduca cuando termina la ventana (redondeada al segundo superior, Max-Age no admite menos)
+    private String cookie(long lastWrite) {
+        long seconds = (properties.getMaxLag().toMillis() + 999) / 1000;
+        return ResponseCookie.from(COOKIE, Long.toString(lastWrite))
+                .path("/")
+                .maxAge(Duration.ofSeconds(seconds))
+                .httpOnly(true)
+                .sameSite("Lax")
+                .build()
+                .toString();
+    }
+}
@@ -0,0 +1,70 @@
+package com.tecsup.petclinic.datasource;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Primary + replica pools behind a {@link ReadWriteRoutingDataSource}, active when
+ * {@code petclinic.datasource.replica.url} is set. Replaces Boot's single pool;
+ * both pools take their settings from {@code spring.datasource.hikari}.
+ * <p>
+ * The pools are not beans on purpose: only the routing DataSource is, so the
+ * JDBC proxy in {@code com.tecsup.petclinic.sql} wraps it once and sees every statement.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "petclinic.datasource.replica", name = "url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, ReplicaDataSourceProperties replicaProperties,
+                                 ReadYourWritesGuard guard, MeterRegistry meterRegistry, Environment environment) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(replicaProperties.getUrl())
+                .username(replicaProperties.getUsername() != null
+                        ? replicaProperties.getUsername() : properties.determineUsername())
+                .password(replicaProperties.getPassword() != null
+                        ? replicaProperties.getPassword() : properties.determinePassword())
+                .build();
+
+        Binder binder = Binder.get(environment);
+        MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(meterRegistry);
+        for (HikariDataSource pool : new HikariDataSource[] {primary, replica}) {
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+            pool.setMetricsTrackerFactory(metrics);
+        }
+        primary.setPoolName("primary");
+        replica.setPoolName("replica");
+        if (replicaProperties.getMaximumPoolSize() != null)
+            replica.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+
+        return new ReadWriteRoutingDataSource(primary, replica, guard, meterRegistry);
+    }
+
+    /**
+     * Con open-in-view Hibernate retendría la primera conexión durante toda la petición,
+     * y una escritura posterior a una lectura acabaría en la réplica.
+     * Liberándola al terminar cada transacción, cada transacción se enruta por separado.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
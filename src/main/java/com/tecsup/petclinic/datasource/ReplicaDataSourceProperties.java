@@ -0,0 +1,29 @@
+package com.tecsup.petclinic.datasource;
+
+import java.time.Duration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read replica, bound from {@code petclinic.datasource.replica.*}.
+ * Without {@code url} there is no routing and everything uses {@code spring.datasource}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "petclinic.datasource.replica")
+public class ReplicaDataSourceProperties {
+
+    private String url;
+
+    // Si no se indican, se usan los de spring.datasource
+    private String username;
+
+    private String password;
+
+    private Integer maximumPoolSize;
+
+    // Retraso máximo esperado de la réplica: tras una escritura, las lecturas de ese cliente van al primario durante este tiempo
+    private Duration maxLag = Duration.ofSeconds(1);
+}
@@ -0,0 +1,31 @@
+package com.tecsup.petclinic.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hit/miss counters of the Hibernate second-level cache, per entity region and for the query cache.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheStatisticsDTO {
+
+    private Map<String, RegionStatistics> regions = new LinkedHashMap<>();
+    private RegionStatistics queries;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RegionStatistics {
+
+        private long hits;
+        private long misses;
+        private long puts;
+        private long size;
+    }
+}
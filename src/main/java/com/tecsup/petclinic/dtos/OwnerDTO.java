@@ -0,0 +1,8 @@
+package com.tecsup.petclinic.dtos;
+
+/**
+ * Row of GET /owners, built by a constructor expression: no entity, nothing to track.
+ */
+public record OwnerDTO(Long id, String firstName, String lastName, String address, String city,
+                       String telephone, Integer version) {
+}
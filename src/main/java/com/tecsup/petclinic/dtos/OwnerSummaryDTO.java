@@ -0,0 +1,16 @@
+package com.tecsup.petclinic.dtos;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Result of GET /owners/{id}/summary: the owner, their pets and each pet's latest visits.
+ */
+public record OwnerSummaryDTO(OwnerDTO owner, List<PetSummary> pets) {
+
+    /**
+     * @param visits más recientes primero
+     */
+    public record PetSummary(Integer id, String name, int typeId, LocalDate birthDate, List<VisitDTO> visits) {
+    }
+}
@@ -1,22 +1,9 @@
 package com.tecsup.petclinic.dtos;
 
-import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
 
-import java.sql.Date;
 import java.time.LocalDate;
 
-@Data
-@AllArgsConstructor
-@NoArgsConstructor
-@Builder
-public class PetDTO {
-
-    private Integer id;
-    private String name;
-    private int typeId;
-    private int ownerId;
-    private LocalDate birthDate;
+@Builder(toBuilder = true)
+public record PetDTO(Integer id, String name, int typeId, int ownerId, LocalDate birthDate) {
 }
@@ -0,0 +1,7 @@
+package com.tecsup.petclinic.dtos;
+
+/**
+ * Row of GET /types.
+ */
+public record PetTypeDTO(Long id, String name) {
+}
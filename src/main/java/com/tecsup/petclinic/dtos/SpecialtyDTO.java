@@ -0,0 +1,7 @@
+package com.tecsup.petclinic.dtos;
+
+/**
+ * Row of GET /specialties.
+ */
+public record SpecialtyDTO(Long id, String name) {
+}
@@ -0,0 +1,7 @@
+package com.tecsup.petclinic.dtos;
+
+/**
+ * Row of GET /vets.
+ */
+public record VetDTO(Long id, String firstName, String lastName, Integer version) {
+}
@@ -0,0 +1,7 @@
+package com.tecsup.petclinic.dtos;
+
+/**
+ * Row of the GET /vet-specialties lists.
+ */
+public record VetSpecialtyDTO(Long vetId, Long specialtyId) {
+}
@@ -0,0 +1,10 @@
+package com.tecsup.petclinic.dtos;
+
+import java.time.LocalDate;
+
+/**
+ * Row of GET /visits (full list, keyset pages and the NDJSON stream).
+ */
+public record VisitDTO(Integer id, Integer petId, Integer vetId, LocalDate visitDate, String description,
+                       Double cost, Integer version) {
+}
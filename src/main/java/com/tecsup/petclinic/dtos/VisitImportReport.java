@@ -0,0 +1,50 @@
+package com.tecsup.petclinic.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of POST /visits/bulk: totals plus one entry per committed chunk.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VisitImportReport {
+
+    private int received;
+    private int imported;
+    private int rejected;
+    private List<ChunkReport> chunks = new ArrayList<>();
+
+    // Error que detuvo la lectura del cuerpo (p. ej. JSON/CSV mal formado)
+    private String error;
+
+    public void addChunk(ChunkReport chunk) {
+        chunks.add(chunk);
+        received += chunk.getReceived();
+        imported += chunk.getImported();
+        rejected += chunk.getReceived() - chunk.getImported();
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ChunkReport {
+
+        private int chunk;
+        private int firstRecord;
+        private int received;
+        private int imported;
+        private List<String> errors = new ArrayList<>();
+
+        public ChunkReport(int chunk, int firstRecord, int received) {
+            this.chunk = chunk;
+            this.firstRecord = firstRecord;
+            this.received = received;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.tecsup.petclinic.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * One row of GET /visits/stats: visit count and revenue for a group.
+ * The group key is the first day of the period (day, week starting Monday or month),
+ * the vet id or the pet type name.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VisitStatsDTO {
+
+    public enum Period { DAY, WEEK, MONTH }
+
+    private String key;
+    private Long visits;
+    private Double revenue;
+
+    // Constructores usados por las consultas "select new" de VisitDailyStatsRepository
+    public VisitStatsDTO(LocalDate period, Long visits, Double revenue) {
+        this(String.valueOf(period), visits, revenue);
+    }
+
+    public VisitStatsDTO(Integer vetId, Long visits, Double revenue) {
+        this(vetId == null ? null : vetId.toString(), visits, revenue);
+    }
+}
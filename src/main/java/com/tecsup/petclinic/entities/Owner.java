@@ -1,5 +1,6 @@
 package com.tecsup.petclinic.entities;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,7 +14,8 @@ import lombok.NoArgsConstructor;
 public class Owner {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "owners_seq")
+    @SequenceGenerator(name = "owners_seq", sequenceName = "owners_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "first_name")
@@ -28,6 +30,11 @@ public class Owner {
 
     private String telephone;
 
+    // Bloqueo optimista; es también el ETag de GET /owners/{id} (no se acepta desde el cliente)
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer version;
+
     public Owner(String firstName, String lastName, String address, String city, String telephone) {
         this.firstName = firstName;
         this.lastName = lastName;
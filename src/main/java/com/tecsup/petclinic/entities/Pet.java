@@ -21,7 +21,8 @@ import java.time.LocalDate;
 public class Pet {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pets_seq")
+	@SequenceGenerator(name = "pets_seq", sequenceName = "pets_seq", allocationSize = 50)
 	private Integer id;
 	private String name;
 	@Column(name = "type_id")
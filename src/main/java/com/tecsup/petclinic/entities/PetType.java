@@ -4,8 +4,12 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "types")
 @Table(name = "types")
 @Data
 @NoArgsConstructor
@@ -13,7 +17,8 @@ import lombok.NoArgsConstructor;
 public class PetType {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "types_seq")
+    @SequenceGenerator(name = "types_seq", sequenceName = "types_seq", allocationSize = 50)
     private Long id;
 
     private String name;
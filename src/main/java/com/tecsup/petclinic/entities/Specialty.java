@@ -4,8 +4,12 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "specialties")
 @Table(name = "specialties")
 @Data
 @NoArgsConstructor
@@ -13,7 +17,8 @@ import lombok.NoArgsConstructor;
 public class Specialty {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "specialties_seq")
+    @SequenceGenerator(name = "specialties_seq", sequenceName = "specialties_seq", allocationSize = 50)
     private Long id;
 
     private String name;
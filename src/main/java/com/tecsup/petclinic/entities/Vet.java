@@ -1,11 +1,16 @@
 package com.tecsup.petclinic.entities;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "vets")
 @Table(name = "vets")
 @Data
 @NoArgsConstructor
@@ -13,7 +18,8 @@ import lombok.NoArgsConstructor;
 public class Vet {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vets_seq")
+    @SequenceGenerator(name = "vets_seq", sequenceName = "vets_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "first_name")
@@ -22,6 +28,11 @@ public class Vet {
     @Column(name = "last_name")
     private String lastName;
 
+    // Bloqueo optimista; es también el ETag de GET /vets/{id} (no se acepta desde el cliente)
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer version;
+
     public Vet(String firstName, String lastName) {
         this.firstName = firstName;
         this.lastName = lastName;
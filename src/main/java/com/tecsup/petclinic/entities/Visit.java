@@ -1,5 +1,6 @@
 package com.tecsup.petclinic.entities;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -15,7 +16,8 @@ import java.time.LocalDate;
 public class Visit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "visits_seq")
+    @SequenceGenerator(name = "visits_seq", sequenceName = "visits_seq", allocationSize = 50)
     private Integer id;
 
     @Column(name = "pet_id", nullable = false)
@@ -33,6 +35,11 @@ public class Visit {
     @Column(name = "cost")
     private Double cost;
 
+    // Bloqueo optimista; es también el ETag de GET /visits/{id} (no se acepta desde el cliente)
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer version;
+
     // Constructor sin ID para crear nuevas visitas
     public Visit(LocalDate visitDate, String description, Integer petId) {
         this.visitDate = visitDate;
@@ -0,0 +1,46 @@
+package com.tecsup.petclinic.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Daily rollup of visits per vet and pet type. Rows are written with SQL by
+ * {@code VisitDailyStatsRepository}; vetId 0 stands for visits without vet.
+ */
+@Entity
+@Table(name = "visit_daily_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(VisitDailyStatsId.class)
+public class VisitDailyStats {
+
+    public static final int NO_VET = 0;
+
+    @Id
+    @Column(name = "visit_date")
+    private LocalDate visitDate;
+
+    @Id
+    @Column(name = "vet_id")
+    private Integer vetId;
+
+    @Id
+    @Column(name = "type_id")
+    private Integer typeId;
+
+    private Long visits;
+
+    @Column(name = "total_cost")
+    private Double totalCost;
+
+    @Column(name = "min_cost")
+    private Double minCost;
+
+    @Column(name = "max_cost")
+    private Double maxCost;
+}
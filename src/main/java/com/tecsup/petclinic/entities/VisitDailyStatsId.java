@@ -0,0 +1,20 @@
+package com.tecsup.petclinic.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VisitDailyStatsId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private LocalDate visitDate;
+    private Integer vetId;
+    private Integer typeId;
+}
@@ -0,0 +1,20 @@
+package com.tecsup.petclinic.exceptions;
+
+/**
+ * Base of the "record not found" exceptions, answered with 404 by the API.
+ * <p>
+ * A miss is an expected outcome (clients and scrapers probe ids that do not exist), so the
+ * stack trace is not captured: filling it walks the whole request stack and is most of
+ * the cost of throwing. Start the JVM with {@code -Dpetclinic.exceptions.stack-traces=true}
+ * to get them back while debugging.
+ */
+public abstract class NotFoundException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final boolean STACK_TRACES = Boolean.getBoolean("petclinic.exceptions.stack-traces");
+
+    protected NotFoundException(String message) {
+        super(message, null, false, STACK_TRACES);
+    }
+}
@@ -1,6 +1,6 @@
 package com.tecsup.petclinic.exceptions;
 
-public class OwnerNotFoundException extends Exception {
+public class OwnerNotFoundException extends NotFoundException {
 
     private static final long serialVersionUID = 1L;
 
@@ -5,7 +5,7 @@ package com.tecsup.petclinic.exceptions;
  * @author jgomezm
  *
  */
-public class PetNotFoundException extends Exception {
+public class PetNotFoundException extends NotFoundException {
 
 	/**
 	 * 
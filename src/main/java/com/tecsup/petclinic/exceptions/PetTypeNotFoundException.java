@@ -1,6 +1,6 @@
 package com.tecsup.petclinic.exceptions;
 
-public class PetTypeNotFoundException extends Exception {
+public class PetTypeNotFoundException extends NotFoundException {
 
     private static final long serialVersionUID = 1L;
 
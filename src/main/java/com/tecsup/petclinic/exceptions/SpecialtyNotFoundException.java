@@ -1,6 +1,6 @@
 package com.tecsup.petclinic.exceptions;
 
-public class SpecialtyNotFoundException extends Exception {
+public class SpecialtyNotFoundException extends NotFoundException {
 
     private static final long serialVersionUID = 1L;
 
@@ -1,6 +1,6 @@
 package com.tecsup.petclinic.exceptions;
 
-public class VetNotFoundException extends Exception {
+public class VetNotFoundException extends NotFoundException {
 
     private static final long serialVersionUID = 1L;
 
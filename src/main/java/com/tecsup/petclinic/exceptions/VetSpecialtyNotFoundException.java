@@ -1,6 +1,6 @@
 package com.tecsup.petclinic.exceptions;
 
-public class VetSpecialtyNotFoundException extends Exception {
+public class VetSpecialtyNotFoundException extends NotFoundException {
 
     private static final long serialVersionUID = 1L;
 
@@ -1,6 +1,6 @@
 package com.tecsup.petclinic.exceptions;
 
-public class VisitNotFoundException extends Exception {
+public class VisitNotFoundException extends NotFoundException {
 
     private static final long serialVersionUID = 1L;
 
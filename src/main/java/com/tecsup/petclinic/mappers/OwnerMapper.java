@@ -0,0 +1,26 @@
+package com.tecsup.petclinic.mappers;
+
+import com.tecsup.petclinic.dtos.OwnerDTO;
+import com.tecsup.petclinic.entities.Owner;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.MappingTarget;
+
+/**
+ * Owner <-> OwnerDTO, generated by MapStruct at compile time.
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface OwnerMapper {
+
+    OwnerDTO mapToDto(Owner entity);
+
+    // La versión solo viaja del servidor al cliente
+    @Mapping(target = "version", ignore = true)
+    Owner mapToEntity(OwnerDTO dto);
+
+    // PUT: copia los campos editables sobre la entidad cargada
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    void updateEntity(OwnerDTO dto, @MappingTarget Owner entity);
+}
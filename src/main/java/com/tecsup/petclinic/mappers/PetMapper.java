@@ -2,36 +2,29 @@ package com.tecsup.petclinic.mappers;
 
 import com.tecsup.petclinic.dtos.PetDTO;
 import com.tecsup.petclinic.entities.Pet;
-import org.springframework.stereotype.Component;
+import org.mapstruct.Builder;
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingConstants;
 
-@Component
-public class PetMapper {
+import java.util.List;
+
+/**
+ * Implementation generated by MapStruct at compile time (PetMapperImpl).
+ * PetDTO is built with its canonical constructor, not through the Lombok builder.
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, builder = @Builder(disableBuilder = true))
+public interface PetMapper {
 
     /**
      * Convert DTO to Entity
      * @param dto
      * @return
      */
-    public  Pet mapToEntity(PetDTO dto) {
-        if (dto == null) return null;
-        return new Pet(
-                dto.getId(),
-                dto.getName(),
-                dto.getTypeId(),
-                dto.getOwnerId(),
-                dto.getBirthDate()
-        );
-    }
+    Pet mapToEntity(PetDTO dto);
+
+    PetDTO mapToDto(Pet entity);
 
-    public PetDTO mapToDto(Pet entity) {
-        if (entity == null) return null;
-        return new PetDTO(
-                entity.getId(),
-                entity.getName(),
-                entity.getTypeId(),
-                entity.getOwnerId(),
-                entity.getBirthDate()
-        );
-    }
+    // Presized ArrayList and a plain loop, no intermediate stream
+    List<PetDTO> mapToDtos(List<Pet> entities);
 
 }
@@ -0,0 +1,23 @@
+package com.tecsup.petclinic.mappers;
+
+import com.tecsup.petclinic.dtos.PetTypeDTO;
+import com.tecsup.petclinic.entities.PetType;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.MappingTarget;
+
+/**
+ * PetType <-> PetTypeDTO, generated by MapStruct at compile time.
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface PetTypeMapper {
+
+    PetTypeDTO mapToDto(PetType entity);
+
+    PetType mapToEntity(PetTypeDTO dto);
+
+    // PUT: copia los campos editables sobre la entidad cargada
+    @Mapping(target = "id", ignore = true)
+    void updateEntity(PetTypeDTO dto, @MappingTarget PetType entity);
+}
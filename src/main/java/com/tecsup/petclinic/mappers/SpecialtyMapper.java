@@ -0,0 +1,23 @@
+package com.tecsup.petclinic.mappers;
+
+import com.tecsup.petclinic.dtos.SpecialtyDTO;
+import com.tecsup.petclinic.entities.Specialty;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.MappingTarget;
+
+/**
+ * Specialty <-> SpecialtyDTO, generated by MapStruct at compile time.
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface SpecialtyMapper {
+
+    SpecialtyDTO mapToDto(Specialty entity);
+
+    Specialty mapToEntity(SpecialtyDTO dto);
+
+    // PUT: copia los campos editables sobre la entidad cargada
+    @Mapping(target = "id", ignore = true)
+    void updateEntity(SpecialtyDTO dto, @MappingTarget Specialty entity);
+}
@@ -0,0 +1,26 @@
+package com.tecsup.petclinic.mappers;
+
+import com.tecsup.petclinic.dtos.VetDTO;
+import com.tecsup.petclinic.entities.Vet;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.MappingTarget;
+
+/**
+ * Vet <-> VetDTO, generated by MapStruct at compile time.
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface VetMapper {
+
+    VetDTO mapToDto(Vet entity);
+
+    // La versión solo viaja del servidor al cliente
+    @Mapping(target = "version", ignore = true)
+    Vet mapToEntity(VetDTO dto);
+
+    // PUT: copia los campos editables sobre la entidad cargada
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    void updateEntity(VetDTO dto, @MappingTarget Vet entity);
+}
@@ -0,0 +1,22 @@
+package com.tecsup.petclinic.mappers;
+
+import com.tecsup.petclinic.dtos.VetSpecialtyDTO;
+import com.tecsup.petclinic.entities.VetSpecialty;
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingConstants;
+
+import java.util.List;
+
+/**
+ * VetSpecialty <-> VetSpecialtyDTO, generated by MapStruct at compile time.
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface VetSpecialtyMapper {
+
+    VetSpecialtyDTO mapToDto(VetSpecialty entity);
+
+    // Presized ArrayList and a plain loop, no intermediate stream
+    List<VetSpecialtyDTO> mapToDtos(List<VetSpecialty> entities);
+
+    VetSpecialty mapToEntity(VetSpecialtyDTO dto);
+}
@@ -0,0 +1,34 @@
+package com.tecsup.petclinic.mappers;
+
+import com.tecsup.petclinic.dtos.VisitDTO;
+import com.tecsup.petclinic.entities.Visit;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.MappingTarget;
+
+import java.util.List;
+
+/**
+ * Visit <-> VisitDTO, generated by MapStruct at compile time.
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface VisitMapper {
+
+    VisitDTO mapToDto(Visit entity);
+
+    // Presized ArrayList and a plain loop, no intermediate stream
+    List<VisitDTO> mapToDtos(List<Visit> entities);
+
+    // La versión solo viaja del servidor al cliente
+    @Mapping(target = "version", ignore = true)
+    Visit mapToEntity(VisitDTO dto);
+
+    // PUT: solo fecha, descripción y mascota, como hasta ahora
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(target = "visitDate")
+    @Mapping(target = "description")
+    @Mapping(target = "petId")
+    void updateEntity(VisitDTO dto, @MappingTarget Visit entity);
+}
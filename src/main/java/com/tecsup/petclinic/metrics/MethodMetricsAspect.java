@@ -0,0 +1,119 @@
+package com.tecsup.petclinic.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every public call on the services and Spring Data repositories as
+ * {@value #TIMER} (tags layer, class, method, outcome, exception), and the size
+ * of collection or page results as {@value #RESULTS}. Meters are looked up once
+ * per method and cached; histograms are configured in application.yml.
+ * Disable with {@code petclinic.metrics.enabled=false}.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "petclinic.metrics", name = "enabled", matchIfMissing = true)
+public class MethodMetricsAspect {
+
+    static final String TIMER = "petclinic.method";
+    static final String RESULTS = "petclinic.method.results";
+
+    @Autowired
+    private MeterRegistry registry;
+
+    // Clase (servicio o proxy del repositorio) -> método -> medidores
+    private final Map<Class<?>, Map<Method, MethodMeters>> meters = new ConcurrentHashMap<>();
+
+    @Around("within(com.tecsup.petclinic.services..*)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "service");
+    }
+
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "repository");
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        MethodMeters methodMeters = meters
+                .computeIfAbsent(joinPoint.getThis().getClass(), type -> new ConcurrentHashMap<>())
+                .computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(),
+                        method -> new MethodMeters(layer, className(joinPoint, layer), method));
+
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            methodMeters.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            methodMeters.recordResult(result);
+            return result;
+        } catch (Throwable t) {
+            methodMeters.error(t).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw t;
+        }
+    }
+
+    private static String className(ProceedingJoinPoint joinPoint, String layer) {
+        if (!"repository".equals(layer))
+            return ClassUtils.getUserClass(joinPoint.getTarget()).getSimpleName();
+        // El proxy implementa la interfaz propia (PetRepository...) además de las de Spring Data
+        return Arrays.stream(ClassUtils.getAllInterfacesForClass(joinPoint.getThis().getClass()))
+                .filter(Repository.class::isAssignableFrom)
+                .filter(type -> type.getPackageName().startsWith("com.tecsup.petclinic"))
+                .map(Class::getSimpleName)
+                .findFirst()
+                .orElse(joinPoint.getSignature().getDeclaringType().getSimpleName());
+    }
+
+    private final class MethodMeters {
+
+        private final Tags tags;
+        private final Timer success;
+        private final DistributionSummary results;
+        private final Map<Class<?>, Timer> errors = new ConcurrentHashMap<>();
+
+        MethodMeters(String layer, String className, Method method) {
+            this.tags = Tags.of("layer", layer, "class", className, "method", method.getName());
+            this.success = Timer.builder(TIMER)
+                    .tags(tags).tags("outcome", "success", "exception", "none")
+                    .register(registry);
+            Class<?> returnType = method.getReturnType();
+            this.results = Collection.class.isAssignableFrom(returnType) || Slice.class.isAssignableFrom(returnType)
+                    ? DistributionSummary.builder(RESULTS).baseUnit("rows").tags(tags).register(registry)
+                    : null;
+        }
+
+        Timer error(Throwable t) {
+            return errors.computeIfAbsent(t.getClass(), type -> Timer.builder(TIMER)
+                    .tags(tags).tags("outcome", "error", "exception", type.getSimpleName())
+                    .register(registry));
+        }
+
+        void recordResult(Object result) {
+            if (results == null)
+                return;
+            if (result instanceof Collection<?> rows)
+                results.record(rows.size());
+            else if (result instanceof Slice<?> page)
+                results.record(page.getNumberOfElements());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.tecsup.petclinic.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.DataException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+
+/**
+ * Partial updates in a single {@code UPDATE ... WHERE id = ?}, without loading the entity.
+ * <p>
+ * Only the named attributes are written, with the values they have in {@code changes}.
+ * On entities with {@code @Version} the version is incremented, and when an expected
+ * version is given it is added to the WHERE clause.
+ * Bulk updates skip the persistence context, but Hibernate still invalidates the
+ * second-level cache region of the entity.
+ * Values the database rejects are reported as {@link DataIntegrityViolationException},
+ * as Spring Data repositories do (a {@code @Repository} proxy would also translate the
+ * IllegalArgumentException of a bad field name).
+ */
+@Component
+public class EntityPatcher {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @return rows updated: 0 if there is no row with that id (or with that version)
+     * @throws IllegalArgumentException if a field is not a basic attribute of the entity,
+     *                                  or no field is left to update
+     * @throws DataIntegrityViolationException if the database rejects a value (NOT NULL, foreign key, length)
+     */
+    public <T> int patch(Class<T> type, Object id, T changes, Collection<String> fields, Integer expectedVersion) {
+        EntityType<T> entity = entityManager.getMetamodel().entity(type);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<T> update = cb.createCriteriaUpdate(type);
+        Root<T> root = update.from(type);
+
+        SingularAttribute<? super T, ?> idAttribute = null;
+        SingularAttribute<? super T, ?> versionAttribute = null;
+        for (SingularAttribute<? super T, ?> attribute : entity.getSingularAttributes()) {
+            if (attribute.isId())
+                idAttribute = attribute;
+            else if (attribute.isVersion())
+                versionAttribute = attribute;
+        }
+
+        int updated = 0;
+        for (String field : fields) {
+            SingularAttribute<? super T, ?> attribute = entity.getSingularAttributes().stream()
+                    .filter(a -> a.getName().equals(field))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown field: " + field));
+            // El id y la versión vienen de la URL y de If-Match, no del cuerpo
+            if (attribute.isId() || attribute.isVersion())
+                continue;
+            update.set(root.get(attribute.getName()), value(changes, attribute));
+            updated++;
+        }
+        if (updated == 0)
+            throw new IllegalArgumentException("No fields to update");
+
+        Predicate where = cb.equal(root.get(idAttribute.getName()), id);
+        if (versionAttribute != null) {
+            Path<Integer> version = root.get(versionAttribute.getName());
+            update.set(version, cb.sum(version, 1));
+            if (expectedVersion != null)
+                where = cb.and(where, cb.equal(version, expectedVersion));
+        }
+        update.where(where);
+        try {
+            return entityManager.createQuery(update).executeUpdate();
+        } catch (ConstraintViolationException | DataException e) {
+            throw new DataIntegrityViolationException(e.getMessage(), e);
+        }
+    }
+
+    private static Object value(Object changes, SingularAttribute<?, ?> attribute) {
+        Field field = (Field) attribute.getJavaMember();
+        try {
+            field.setAccessible(true);
+            return field.get(changes);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
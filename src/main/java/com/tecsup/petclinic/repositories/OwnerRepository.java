@@ -1,14 +1,33 @@
 package com.tecsup.petclinic.repositories;
 
+import com.tecsup.petclinic.dtos.OwnerDTO;
 import com.tecsup.petclinic.entities.Owner;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OwnerRepository extends JpaRepository<Owner, Long> {
     List<Owner> findByFirstName(String firstName);
     List<Owner> findByLastName(String lastName);
     List<Owner> findByCity(String city);
+
+    // Filas de GET /owners sin hidratar entidades (nada que registrar ni comparar al hacer flush)
+    @Query("select new com.tecsup.petclinic.dtos.OwnerDTO(o.id, o.firstName, o.lastName, o.address, o.city,"
+            + " o.telephone, o.version) from Owner o")
+    List<OwnerDTO> findAllDTOs();
+
+    // Solo la versión (ETag), sin cargar la fila completa
+    @Query("select o.version from Owner o where o.id = :id")
+    Optional<Integer> findVersionById(@Param("id") Long id);
+
+    // Un solo DELETE; con version != null solo borra esa versión (If-Match). Devuelve las filas borradas
+    @Modifying
+    @Query("delete from Owner o where o.id = :id and (:version is null or o.version = :version)")
+    int removeById(@Param("id") Long id, @Param("version") Integer version);
 }
\ No newline at end of file
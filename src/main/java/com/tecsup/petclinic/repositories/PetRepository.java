@@ -1,11 +1,19 @@
 package com.tecsup.petclinic.repositories;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.tecsup.petclinic.dtos.PetDTO;
 import com.tecsup.petclinic.entities.Pet;
 
 /**
@@ -29,4 +37,24 @@ public interface PetRepository
 	@Override
 	List<Pet> findAll();
 
+	// Fetch which of the given ids exist, in one query
+	@Query("select p.id from pets p where p.id in :ids")
+	Set<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+	// Fetch a page of pets straight into PetDTO, without entities; a null filter matches every row
+	@Query(value = "select new com.tecsup.petclinic.dtos.PetDTO(p.id, p.name, p.typeId, p.ownerId, p.birthDate)"
+			+ " from pets p where (:ownerId is null or p.ownerId = :ownerId)"
+			+ " and (:typeId is null or p.typeId = :typeId)"
+			+ " and (:name is null or p.name = :name)",
+			countQuery = "select count(p) from pets p where (:ownerId is null or p.ownerId = :ownerId)"
+			+ " and (:typeId is null or p.typeId = :typeId)"
+			+ " and (:name is null or p.name = :name)")
+	Page<PetDTO> findPage(@Param("ownerId") Integer ownerId, @Param("typeId") Integer typeId,
+			@Param("name") String name, Pageable pageable);
+
+	// Delete in a single statement, without loading the entity; returns the rows deleted
+	@Modifying
+	@Query("delete from pets p where p.id = :id")
+	int removeById(@Param("id") Integer id);
+
 }
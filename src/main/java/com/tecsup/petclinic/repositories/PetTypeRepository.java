@@ -1,7 +1,14 @@
 package com.tecsup.petclinic.repositories;
 
+import com.tecsup.petclinic.dtos.PetTypeDTO;
 import com.tecsup.petclinic.entities.PetType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +16,14 @@ import java.util.List;
 @Repository
 public interface PetTypeRepository extends JpaRepository<PetType, Long> {
     List<PetType> findByName(String name);
+
+    // Filas de GET /types sin hidratar entidades; resultado guardado en la caché de consultas
+    @Query("select new com.tecsup.petclinic.dtos.PetTypeDTO(t.id, t.name) from PetType t")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<PetTypeDTO> findAllDTOs();
+
+    // Un solo DELETE sin cargar la entidad; devuelve las filas borradas
+    @Modifying
+    @Query("delete from PetType t where t.id = :id")
+    int removeById(@Param("id") Long id);
 }
\ No newline at end of file
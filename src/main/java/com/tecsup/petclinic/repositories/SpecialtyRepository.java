@@ -1,7 +1,14 @@
 package com.tecsup.petclinic.repositories;
 
+import com.tecsup.petclinic.dtos.SpecialtyDTO;
 import com.tecsup.petclinic.entities.Specialty;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +16,14 @@ import java.util.List;
 @Repository
 public interface SpecialtyRepository extends JpaRepository<Specialty, Long> {
     List<Specialty> findByName(String name);
+
+    // Filas de GET /specialties sin hidratar entidades; resultado guardado en la caché de consultas
+    @Query("select new com.tecsup.petclinic.dtos.SpecialtyDTO(s.id, s.name) from Specialty s")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<SpecialtyDTO> findAllDTOs();
+
+    // Un solo DELETE sin cargar la entidad; devuelve las filas borradas
+    @Modifying
+    @Query("delete from Specialty s where s.id = :id")
+    int removeById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -1,13 +1,36 @@
 package com.tecsup.petclinic.repositories;
 
+import com.tecsup.petclinic.dtos.VetDTO;
 import com.tecsup.petclinic.entities.Vet;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 @Repository
 public interface VetRepository extends JpaRepository<Vet, Long> {
     List<Vet> findByFirstName(String firstName);
     List<Vet> findByLastName(String lastName);
+
+    // Filas de GET /vets sin hidratar entidades; resultado guardado en la caché de consultas
+    @Query("select new com.tecsup.petclinic.dtos.VetDTO(v.id, v.firstName, v.lastName, v.version) from Vet v")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<VetDTO> findAllDTOs();
+
+    // Ids existentes entre los dados, en una sola consulta
+    @Query("select v.id from Vet v where v.id in :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Un solo DELETE; con version != null solo borra esa versión (If-Match). Devuelve las filas borradas
+    @Modifying
+    @Query("delete from Vet v where v.id = :id and (:version is null or v.version = :version)")
+    int removeById(@Param("id") Long id, @Param("version") Integer version);
 }
@@ -1,14 +1,54 @@
 package com.tecsup.petclinic.repositories;
 
+import com.tecsup.petclinic.dtos.VetSpecialtyDTO;
 import com.tecsup.petclinic.entities.VetSpecialty;
 import com.tecsup.petclinic.entities.VetSpecialtyId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface VetSpecialtyRepository extends JpaRepository<VetSpecialty, VetSpecialtyId> {
+    // Resultado guardado en la caché de consultas
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<VetSpecialty> findByVetId(Long vetId);
-    List<VetSpecialty> findBySpecialtyId(Long specialtyId);
+
+    // Filas de las listas de GET /vet-specialties sin hidratar entidades; también en la caché de consultas
+    @Query("select new com.tecsup.petclinic.dtos.VetSpecialtyDTO(vs.vetId, vs.specialtyId) from VetSpecialty vs")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<VetSpecialtyDTO> findAllDTOs();
+
+    @Query("select new com.tecsup.petclinic.dtos.VetSpecialtyDTO(vs.vetId, vs.specialtyId) from VetSpecialty vs"
+            + " where vs.vetId = :vetId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<VetSpecialtyDTO> findDTOsByVetId(@Param("vetId") Long vetId);
+
+    @Query("select new com.tecsup.petclinic.dtos.VetSpecialtyDTO(vs.vetId, vs.specialtyId) from VetSpecialty vs"
+            + " where vs.specialtyId = :specialtyId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<VetSpecialtyDTO> findDTOsBySpecialtyId(@Param("specialtyId") Long specialtyId);
+
+    // Un solo DELETE sin cargar la entidad; devuelve las filas borradas
+    @Modifying
+    @Query("delete from VetSpecialty vs where vs.vetId = :vetId and vs.specialtyId = :specialtyId")
+    int removeById(@Param("vetId") Long vetId, @Param("specialtyId") Long specialtyId);
+
+    @Modifying
+    @Query("delete from VetSpecialty vs where vs.vetId = :vetId and vs.specialtyId in :specialtyIds")
+    int removeByVetIdAndSpecialtyIds(@Param("vetId") Long vetId, @Param("specialtyIds") Collection<Long> specialtyIds);
+
+    // Cambia la clave de la fila con un UPDATE: conserva certificación, experiencia y notas
+    @Modifying
+    @Query("update VetSpecialty vs set vs.vetId = :newVetId, vs.specialtyId = :newSpecialtyId"
+            + " where vs.vetId = :vetId and vs.specialtyId = :specialtyId")
+    int moveById(@Param("vetId") Long vetId, @Param("specialtyId") Long specialtyId,
+                 @Param("newVetId") Long newVetId, @Param("newSpecialtyId") Long newSpecialtyId);
 }
\ No newline at end of file
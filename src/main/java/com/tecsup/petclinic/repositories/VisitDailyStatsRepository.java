@@ -0,0 +1,89 @@
+package com.tecsup.petclinic.repositories;
+
+import com.tecsup.petclinic.dtos.VisitStatsDTO;
+import com.tecsup.petclinic.entities.VisitDailyStats;
+import com.tecsup.petclinic.entities.VisitDailyStatsId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@RepositoryRestResource(exported = false)
+public interface VisitDailyStatsRepository
+        extends JpaRepository<VisitDailyStats, VisitDailyStatsId>, VisitDailyStatsRepositoryCustom {
+
+    // Lunes de la semana y primer día del mes, con aritmética de fechas portable (H2 y MySQL)
+    String WEEK_START = "(s.visitDate - mod(extract(day of week from s.visitDate) + 5, 7) day)";
+    String MONTH_START = "(s.visitDate - (extract(day from s.visitDate) - 1) day)";
+
+    // Agregados por día, semana (lunes) o mes a partir del resumen diario
+    @Query("select new com.tecsup.petclinic.dtos.VisitStatsDTO(s.visitDate, sum(s.visits), sum(s.totalCost))"
+            + " from VisitDailyStats s where s.visitDate between :from and :to"
+            + " group by s.visitDate order by s.visitDate")
+    List<VisitStatsDTO> statsByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select new com.tecsup.petclinic.dtos.VisitStatsDTO("
+            + WEEK_START + ", sum(s.visits), sum(s.totalCost))"
+            + " from VisitDailyStats s where s.visitDate between :from and :to"
+            + " group by " + WEEK_START + " order by " + WEEK_START)
+    List<VisitStatsDTO> statsByWeek(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select new com.tecsup.petclinic.dtos.VisitStatsDTO("
+            + MONTH_START + ", sum(s.visits), sum(s.totalCost))"
+            + " from VisitDailyStats s where s.visitDate between :from and :to"
+            + " group by " + MONTH_START + " order by " + MONTH_START)
+    List<VisitStatsDTO> statsByMonth(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select new com.tecsup.petclinic.dtos.VisitStatsDTO(nullif(s.vetId, 0), sum(s.visits), sum(s.totalCost))"
+            + " from VisitDailyStats s where s.visitDate between :from and :to"
+            + " group by s.vetId order by s.vetId")
+    List<VisitStatsDTO> statsByVet(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select new com.tecsup.petclinic.dtos.VisitStatsDTO(t.name, sum(s.visits), sum(s.totalCost))"
+            + " from VisitDailyStats s join PetType t on t.id = s.typeId"
+            + " where s.visitDate between :from and :to"
+            + " group by t.id, t.name order by t.name")
+    List<VisitStatsDTO> statsByPetType(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Recalcula desde visits: todo un rango de fechas (backfill) o un único grupo
+    @Modifying
+    @Query("delete from VisitDailyStats s where s.visitDate between :from and :to")
+    int deleteRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query(value = "INSERT INTO visit_daily_stats (visit_date, vet_id, type_id, visits, total_cost, min_cost, max_cost)"
+            + " SELECT v.visit_date, COALESCE(v.vet_id, 0), p.type_id, COUNT(*), COALESCE(SUM(v.cost), 0), MIN(v.cost), MAX(v.cost)"
+            + " FROM visits v JOIN pets p ON p.id = v.pet_id"
+            + " WHERE v.visit_date BETWEEN :from AND :to"
+            + " GROUP BY v.visit_date, COALESCE(v.vet_id, 0), p.type_id", nativeQuery = true)
+    int insertRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("delete from VisitDailyStats s where s.visitDate = :visitDate and s.vetId = :vetId and s.typeId = :typeId")
+    int deleteBucket(@Param("visitDate") LocalDate visitDate, @Param("vetId") Integer vetId, @Param("typeId") Integer typeId);
+
+    @Modifying
+    @Query(value = "INSERT INTO visit_daily_stats (visit_date, vet_id, type_id, visits, total_cost, min_cost, max_cost)"
+            + " SELECT v.visit_date, COALESCE(v.vet_id, 0), p.type_id, COUNT(*), COALESCE(SUM(v.cost), 0), MIN(v.cost), MAX(v.cost)"
+            + " FROM visits v JOIN pets p ON p.id = v.pet_id"
+            + " WHERE v.visit_date = :visitDate AND COALESCE(v.vet_id, 0) = :vetId AND p.type_id = :typeId"
+            + " GROUP BY v.visit_date, COALESCE(v.vet_id, 0), p.type_id", nativeQuery = true)
+    int insertBucket(@Param("visitDate") LocalDate visitDate, @Param("vetId") Integer vetId, @Param("typeId") Integer typeId);
+
+    // Un grupo se recalcula entero: min/max no se pueden restar
+    default void refreshBucket(VisitDailyStatsId id) {
+        deleteBucket(id.getVisitDate(), id.getVetId(), id.getTypeId());
+        insertBucket(id.getVisitDate(), id.getVetId(), id.getTypeId());
+    }
+
+    default void refreshBuckets(Collection<VisitDailyStatsId> ids) {
+        ids.forEach(this::refreshBucket);
+    }
+}
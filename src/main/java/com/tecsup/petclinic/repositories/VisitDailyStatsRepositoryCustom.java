@@ -0,0 +1,13 @@
+package com.tecsup.petclinic.repositories;
+
+import com.tecsup.petclinic.entities.Visit;
+
+import java.util.Collection;
+
+public interface VisitDailyStatsRepositoryCustom {
+
+    /**
+     * Adds new visits to their daily buckets with one batched upsert.
+     */
+    void addVisits(Collection<Visit> visits);
+}
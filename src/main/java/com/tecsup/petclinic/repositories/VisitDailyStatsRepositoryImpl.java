@@ -0,0 +1,45 @@
+package com.tecsup.petclinic.repositories;
+
+import com.tecsup.petclinic.entities.Visit;
+import com.tecsup.petclinic.entities.VisitDailyStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.Objects;
+
+public class VisitDailyStatsRepositoryImpl implements VisitDailyStatsRepositoryCustom {
+
+    // El tipo de mascota se toma de pets; INSERT ... ON DUPLICATE KEY UPDATE vale para MySQL y H2 (MODE=MySQL)
+    private static final String UPSERT =
+            "INSERT INTO visit_daily_stats (visit_date, vet_id, type_id, visits, total_cost, min_cost, max_cost)"
+            + " SELECT ?, ?, p.type_id, 1, ?, ?, ? FROM pets p WHERE p.id = ?"
+            + " ON DUPLICATE KEY UPDATE visits = visits + 1,"
+            + " total_cost = total_cost + VALUES(total_cost),"
+            + " min_cost = LEAST(COALESCE(min_cost, VALUES(min_cost)), COALESCE(VALUES(min_cost), min_cost)),"
+            + " max_cost = GREATEST(COALESCE(max_cost, VALUES(max_cost)), COALESCE(VALUES(max_cost), max_cost))";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addVisits(Collection<Visit> visits) {
+        if (visits.isEmpty())
+            return;
+        jdbcTemplate.batchUpdate(UPSERT, visits, visits.size(), (ps, visit) -> {
+            ps.setDate(1, Date.valueOf(visit.getVisitDate()));
+            ps.setInt(2, Objects.requireNonNullElse(visit.getVetId(), VisitDailyStats.NO_VET));
+            ps.setDouble(3, Objects.requireNonNullElse(visit.getCost(), 0.0));
+            if (visit.getCost() == null) {
+                ps.setNull(4, Types.DECIMAL);
+                ps.setNull(5, Types.DECIMAL);
+            } else {
+                ps.setDouble(4, visit.getCost());
+                ps.setDouble(5, visit.getCost());
+            }
+            ps.setInt(6, visit.getPetId());
+        });
+    }
+}
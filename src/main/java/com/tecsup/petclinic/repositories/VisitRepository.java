@@ -1,11 +1,23 @@
 package com.tecsup.petclinic.repositories;
 
+import com.tecsup.petclinic.dtos.VisitDTO;
 import com.tecsup.petclinic.entities.Visit;
+import com.tecsup.petclinic.entities.VisitDailyStatsId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface VisitRepository extends JpaRepository<Visit, Integer> {
@@ -24,4 +36,57 @@ public interface VisitRepository extends JpaRepository<Visit, Integer> {
 
     // Buscar visitas por pet y fecha
     List<Visit> findByPetIdAndVisitDate(Integer petId, LocalDate visitDate);
-}
\ No newline at end of file
+
+    // Solo la versión (ETag), sin cargar la fila completa
+    @Query("select v.version from Visit v where v.id = :id")
+    Optional<Integer> findVersionById(@Param("id") Integer id);
+
+    // Un solo DELETE; con version != null solo borra esa versión (If-Match). Devuelve las filas borradas
+    @Modifying
+    @Query("delete from Visit v where v.id = :id and (:version is null or v.version = :version)")
+    int removeById(@Param("id") Integer id, @Param("version") Integer version);
+
+    // Últimas perPet visitas de cada mascota (más recientes primero), en una sola consulta
+    @Query(value = "select t.id, t.pet_id, t.vet_id, t.visit_date, t.description, t.cost, t.version from ("
+            + " select v.*, row_number() over (partition by v.pet_id order by v.visit_date desc, v.id desc) as rn"
+            + " from visits v where v.pet_id in (:petIds)) t"
+            + " where t.rn <= :perPet order by t.pet_id, t.rn", nativeQuery = true)
+    List<Visit> findLatestByPetIds(@Param("petIds") Collection<Integer> petIds, @Param("perPet") int perPet);
+
+    // Grupo del resumen diario al que pertenece la visita guardada; FlushMode COMMIT
+    // evita volcar antes cambios pendientes de la misma visita
+    @Query("select new com.tecsup.petclinic.entities.VisitDailyStatsId(v.visitDate, coalesce(v.vetId, 0), p.typeId)"
+            + " from Visit v join pets p on p.id = v.petId where v.id = :id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    Optional<VisitDailyStatsId> findDailyStatsId(@Param("id") Integer id);
+
+    // Grupos del resumen diario con visitas de una mascota, de las mascotas de un propietario o de un
+    // veterinario: se leen antes de cambios que los alteran sin pasar por VisitService (ON DELETE, tipo de mascota)
+    @Query("select distinct new com.tecsup.petclinic.entities.VisitDailyStatsId(v.visitDate, coalesce(v.vetId, 0), p.typeId)"
+            + " from Visit v join pets p on p.id = v.petId where v.petId = :petId")
+    List<VisitDailyStatsId> findDailyStatsIdsByPetId(@Param("petId") Integer petId);
+
+    @Query("select distinct new com.tecsup.petclinic.entities.VisitDailyStatsId(v.visitDate, coalesce(v.vetId, 0), p.typeId)"
+            + " from Visit v join pets p on p.id = v.petId where p.ownerId = :ownerId")
+    List<VisitDailyStatsId> findDailyStatsIdsByOwnerId(@Param("ownerId") Integer ownerId);
+
+    @Query("select distinct new com.tecsup.petclinic.entities.VisitDailyStatsId(v.visitDate, coalesce(v.vetId, 0), p.typeId)"
+            + " from Visit v join pets p on p.id = v.petId where v.vetId = :vetId")
+    List<VisitDailyStatsId> findDailyStatsIdsByVetId(@Param("vetId") Integer vetId);
+
+    // Filas de GET /visits sin hidratar entidades
+    @Query("select new com.tecsup.petclinic.dtos.VisitDTO(v.id, v.petId, v.vetId, v.visitDate, v.description,"
+            + " v.cost, v.version) from Visit v")
+    List<VisitDTO> findAllDTOs();
+
+    // Página keyset: visitas con id mayor al cursor, ordenadas por id
+    @Query("select new com.tecsup.petclinic.dtos.VisitDTO(v.id, v.petId, v.vetId, v.visitDate, v.description,"
+            + " v.cost, v.version) from Visit v where v.id > :afterId order by v.id")
+    List<VisitDTO> findDTOsAfter(@Param("afterId") Integer afterId, Limit limit);
+
+    // Recorre todas las visitas ordenadas por id sin materializar la tabla ni el contexto de persistencia
+    @Query("select new com.tecsup.petclinic.dtos.VisitDTO(v.id, v.petId, v.vetId, v.visitDate, v.description,"
+            + " v.cost, v.version) from Visit v order by v.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<VisitDTO> streamDTOsOrderById();
+}
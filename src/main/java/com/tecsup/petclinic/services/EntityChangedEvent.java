@@ -0,0 +1,12 @@
+package com.tecsup.petclinic.services;
+
+/**
+ * Published by the services after creating, updating, patching or deleting an entity.
+ * Listeners that keep derived copies of the data (the serialized-response cache) use
+ * {@code @TransactionalEventListener}, so they only react once the change is committed.
+ *
+ * @param type entity class, e.g. {@code Owner.class}
+ * @param id   identifier of the changed row
+ */
+public record EntityChangedEvent(Class<?> type, Object id) {
+}
@@ -1,8 +1,11 @@
 package com.tecsup.petclinic.services;
 
+import com.tecsup.petclinic.dtos.OwnerDTO;
+import com.tecsup.petclinic.dtos.OwnerSummaryDTO;
 import com.tecsup.petclinic.entities.Owner;
 import com.tecsup.petclinic.exceptions.OwnerNotFoundException;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface OwnerService {
@@ -13,13 +16,37 @@ public interface OwnerService {
 
     void delete(Long id) throws OwnerNotFoundException;
 
+    /**
+     * Deletes the owner with a single {@code DELETE}; {@code version} is the expected
+     * {@code @Version}, or null to delete whatever version is stored.
+     */
+    void delete(Long id, Integer version) throws OwnerNotFoundException;
+
+    /**
+     * Writes only {@code fields}, taking their values from {@code changes}, with a single {@code UPDATE}.
+     */
+    void patch(Long id, Owner changes, Collection<String> fields, Integer version) throws OwnerNotFoundException;
+
     Owner findById(Long id) throws OwnerNotFoundException;
 
+    /**
+     * Current {@code @Version} of the owner, read without loading the row.
+     */
+    Integer findVersion(Long id) throws OwnerNotFoundException;
+
     List<Owner> findByFirstName(String firstName);
 
     List<Owner> findByLastName(String lastName);
 
     List<Owner> findByCity(String city);
 
-    List<Owner> findAll();
+    /**
+     * Every owner as a read-only row, without loading entities.
+     */
+    List<OwnerDTO> findAll();
+
+    /**
+     * Owner, pets and the latest {@code visitsPerPet} visits of each pet, in at most three queries.
+     */
+    OwnerSummaryDTO findSummary(Long id, int visitsPerPet) throws OwnerNotFoundException;
 }
\ No newline at end of file
@@ -1,36 +1,108 @@
 package com.tecsup.petclinic.services;
 
+import com.tecsup.petclinic.dtos.OwnerDTO;
+import com.tecsup.petclinic.dtos.OwnerSummaryDTO;
 import com.tecsup.petclinic.entities.Owner;
+import com.tecsup.petclinic.entities.Pet;
+import com.tecsup.petclinic.entities.Visit;
+import com.tecsup.petclinic.entities.VisitDailyStatsId;
 import com.tecsup.petclinic.exceptions.OwnerNotFoundException;
+import com.tecsup.petclinic.mappers.OwnerMapper;
+import com.tecsup.petclinic.mappers.VisitMapper;
+import com.tecsup.petclinic.repositories.EntityPatcher;
 import com.tecsup.petclinic.repositories.OwnerRepository;
+import com.tecsup.petclinic.repositories.PetRepository;
+import com.tecsup.petclinic.repositories.VisitDailyStatsRepository;
+import com.tecsup.petclinic.repositories.VisitRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
+@Transactional(readOnly = true)
 @Slf4j
 public class OwnerServiceImpl implements OwnerService {
 
     @Autowired
     private OwnerRepository ownerRepository;
 
+    @Autowired
+    private PetRepository petRepository;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private VisitDailyStatsRepository dailyStatsRepository;
+
+    @Autowired
+    private EntityPatcher entityPatcher;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private OwnerMapper ownerMapper;
+
+    @Autowired
+    private VisitMapper visitMapper;
+
     @Override
+    @Transactional
     public Owner create(Owner owner) {
-        return ownerRepository.save(owner);
+        Owner saved = ownerRepository.save(owner);
+        eventPublisher.publishEvent(new EntityChangedEvent(Owner.class, saved.getId()));
+        return saved;
     }
 
     @Override
+    @Transactional
     public Owner update(Owner owner) {
-        return ownerRepository.save(owner);
+        Owner saved = ownerRepository.save(owner);
+        eventPublisher.publishEvent(new EntityChangedEvent(Owner.class, saved.getId()));
+        return saved;
     }
 
     @Override
+    @Transactional
     public void delete(Long id) throws OwnerNotFoundException {
-        Owner owner = findById(id);
-        ownerRepository.delete(owner);
+        delete(id, null);
+    }
+
+    @Override
+    @Transactional
+    public void delete(Long id, Integer version) throws OwnerNotFoundException {
+        // ON DELETE CASCADE borra sus mascotas y visitas: los grupos de visit_daily_stats se leen antes
+        List<VisitDailyStatsId> buckets = visitRepository.findDailyStatsIdsByOwnerId(id.intValue());
+        if (ownerRepository.removeById(id, version) == 0)
+            throw notFoundOrStale(id, version);
+        dailyStatsRepository.refreshBuckets(buckets);
+        eventPublisher.publishEvent(new EntityChangedEvent(Owner.class, id));
+    }
+
+    @Override
+    @Transactional
+    public void patch(Long id, Owner changes, Collection<String> fields, Integer version) throws OwnerNotFoundException {
+        if (entityPatcher.patch(Owner.class, id, changes, fields, version) == 0)
+            throw notFoundOrStale(id, version);
+        eventPublisher.publishEvent(new EntityChangedEvent(Owner.class, id));
+    }
+
+    // Solo ante 0 filas afectadas se consulta por qué: no existe o la versión no coincide
+    private OwnerNotFoundException notFoundOrStale(Long id, Integer version) {
+        if (version != null && ownerRepository.existsById(id))
+            throw new ObjectOptimisticLockingFailureException(Owner.class, id);
+        return new OwnerNotFoundException("Propietario no encontrado con ID: " + id);
     }
 
     @Override
@@ -41,6 +113,12 @@ public class OwnerServiceImpl implements OwnerService {
         return owner.get();
     }
 
+    @Override
+    public Integer findVersion(Long id) throws OwnerNotFoundException {
+        return ownerRepository.findVersionById(id)
+                .orElseThrow(() -> new OwnerNotFoundException("Propietario no encontrado con ID: " + id));
+    }
+
     @Override
     public List<Owner> findByFirstName(String firstName) {
         return ownerRepository.findByFirstName(firstName);
@@ -57,7 +135,26 @@ public class OwnerServiceImpl implements OwnerService {
     }
 
     @Override
-    public List<Owner> findAll() {
-        return ownerRepository.findAll();
+    public List<OwnerDTO> findAll() {
+        return ownerRepository.findAllDTOs();
+    }
+
+    @Override
+    public OwnerSummaryDTO findSummary(Long id, int visitsPerPet) throws OwnerNotFoundException {
+        Owner owner = findById(id);
+        List<Pet> pets = petRepository.findByOwnerId(id.intValue());
+
+        Map<Integer, OwnerSummaryDTO.PetSummary> byPetId = new LinkedHashMap<>();
+        for (Pet pet : pets)
+            byPetId.put(pet.getId(), new OwnerSummaryDTO.PetSummary(
+                    pet.getId(), pet.getName(), pet.getTypeId(), pet.getBirthDate(), new ArrayList<>()));
+
+        // Una sola consulta para las visitas de todas las mascotas (evita N+1)
+        if (!byPetId.isEmpty() && visitsPerPet > 0) {
+            for (Visit visit : visitRepository.findLatestByPetIds(byPetId.keySet(), visitsPerPet))
+                byPetId.get(visit.getPetId()).visits().add(visitMapper.mapToDto(visit));
+        }
+
+        return new OwnerSummaryDTO(ownerMapper.mapToDto(owner), List.copyOf(byPetId.values()));
     }
 }
\ No newline at end of file
@@ -1,7 +1,11 @@
 package com.tecsup.petclinic.services;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
 import com.tecsup.petclinic.dtos.PetDTO;
 import com.tecsup.petclinic.entities.Pet;
 import com.tecsup.petclinic.exceptions.PetNotFoundException;
@@ -34,6 +38,16 @@ public interface PetService {
 	 */
 	void delete(Integer id) throws PetNotFoundException;
 
+	/**
+	 * Writes only the given fields, in a single UPDATE
+	 * 
+	 * @param id
+	 * @param changes values of the fields to write
+	 * @param fields names of the fields to write
+	 * @throws PetNotFoundException
+	 */
+	void patch(Integer id, PetDTO changes, Collection<String> fields) throws PetNotFoundException;
+
 	/**
 	 * 
 	 * @param id
@@ -67,4 +81,14 @@ public interface PetService {
 	 * @return
 	 */
 	List<Pet> findAll();
+
+	/**
+	 * 
+	 * @param ownerId filter, ignored when null
+	 * @param typeId filter, ignored when null
+	 * @param name filter, ignored when null
+	 * @param pageable
+	 * @return
+	 */
+	Page<PetDTO> findPage(Integer ownerId, Integer typeId, String name, Pageable pageable);
 }
\ No newline at end of file
@@ -1,18 +1,25 @@
 package com.tecsup.petclinic.services;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import com.tecsup.petclinic.dtos.PetDTO;
 import com.tecsup.petclinic.mappers.PetMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.tecsup.petclinic.entities.Pet;
+import com.tecsup.petclinic.entities.VisitDailyStatsId;
 import com.tecsup.petclinic.exceptions.PetNotFoundException;
+import com.tecsup.petclinic.repositories.EntityPatcher;
 import com.tecsup.petclinic.repositories.PetRepository;
+import com.tecsup.petclinic.repositories.VisitDailyStatsRepository;
+import com.tecsup.petclinic.repositories.VisitRepository;
 
 /**
  * 
@@ -20,15 +27,23 @@ import com.tecsup.petclinic.repositories.PetRepository;
  *
  */
 @Service
+@Transactional(readOnly = true)
 @Slf4j
 public class PetServiceImpl implements PetService {
 
 	PetRepository petRepository;
 	PetMapper petMapper;
+	EntityPatcher entityPatcher;
+	VisitRepository visitRepository;
+	VisitDailyStatsRepository dailyStatsRepository;
 
-	public PetServiceImpl (PetRepository petRepository, PetMapper petMapper) {
+	public PetServiceImpl (PetRepository petRepository, PetMapper petMapper, EntityPatcher entityPatcher,
+			VisitRepository visitRepository, VisitDailyStatsRepository dailyStatsRepository) {
 		this. petRepository = petRepository;
 		this.petMapper = petMapper;
+		this.entityPatcher = entityPatcher;
+		this.visitRepository = visitRepository;
+		this.dailyStatsRepository = dailyStatsRepository;
 	}
 
 
@@ -38,6 +53,7 @@ public class PetServiceImpl implements PetService {
 	 * @return
 	 */
 	@Override
+	@Transactional
 	public PetDTO create(PetDTO petDTO) {
 
 		Pet newPet = petRepository.save(petMapper.mapToEntity(petDTO));
@@ -51,10 +67,17 @@ public class PetServiceImpl implements PetService {
 	 * @return
 	 */
 	@Override
+	@Transactional
 	public PetDTO update(PetDTO petDTO) {
 
+		// Grupos de visit_daily_stats de sus visitas, leídos antes por si cambia el tipo
+		List<VisitDailyStatsId> buckets = petDTO.id() == null
+				? List.of() : visitRepository.findDailyStatsIdsByPetId(petDTO.id());
+
 		Pet newPet = petRepository.save(petMapper.mapToEntity(petDTO));
 
+		moveToType(buckets, newPet.getTypeId());
+
 		return petMapper.mapToDto(newPet);
 
 	}
@@ -66,14 +89,54 @@ public class PetServiceImpl implements PetService {
 	 * @throws PetNotFoundException
 	 */
 	@Override
+	@Transactional
 	public void delete(Integer id) throws PetNotFoundException{
 
-		PetDTO pet = findById(id);
+		// ON DELETE CASCADE borra sus visitas: los grupos de visit_daily_stats se leen antes
+		List<VisitDailyStatsId> buckets = visitRepository.findDailyStatsIdsByPetId(id);
 
-		petRepository.delete(this.petMapper.mapToEntity(pet));
+		if (petRepository.removeById(id) == 0)
+			throw new PetNotFoundException("Record not found...!");
+
+		dailyStatsRepository.refreshBuckets(buckets);
 
 	}
 
+	/**
+	 * 
+	 * @param id
+	 * @param changes
+	 * @param fields
+	 * @throws PetNotFoundException
+	 */
+	@Override
+	@Transactional
+	public void patch(Integer id, PetDTO changes, Collection<String> fields) throws PetNotFoundException {
+
+		List<VisitDailyStatsId> buckets = fields.contains("typeId")
+				? visitRepository.findDailyStatsIdsByPetId(id) : List.of();
+
+		if (entityPatcher.patch(Pet.class, id, petMapper.mapToEntity(changes), fields, null) == 0)
+			throw new PetNotFoundException("Record not found...!");
+
+		moveToType(buckets, changes.typeId());
+
+	}
+
+	// Si cambió el tipo, las visitas pasan de los grupos del tipo anterior a los del nuevo
+	private void moveToType(List<VisitDailyStatsId> buckets, int typeId) {
+
+		if (buckets.stream().allMatch(bucket -> bucket.getTypeId() == typeId))
+			return;
+
+		petRepository.flush();
+		dailyStatsRepository.refreshBuckets(buckets);
+		dailyStatsRepository.refreshBuckets(buckets.stream()
+				.map(bucket -> new VisitDailyStatsId(bucket.getVisitDate(), bucket.getVetId(), typeId))
+				.distinct()
+				.toList());
+	}
+
 	/**
 	 * 
 	 * @param id
@@ -100,12 +163,7 @@ public class PetServiceImpl implements PetService {
 
 		List<Pet> pets = petRepository.findByName(name);
 
-		pets.forEach(pet -> log.info("" + pet));
-
-		return pets
-				.stream()
-				.map(this.petMapper::mapToDto)
-				.collect(Collectors.toList());
+		return this.petMapper.mapToDtos(pets);
 	}
 
 	/**
@@ -118,8 +176,6 @@ public class PetServiceImpl implements PetService {
 
 		List<Pet> pets = petRepository.findByTypeId(typeId);
 
-		pets.forEach(pet -> log.info("" + pet));
-
 		return pets; 
 	}
 
@@ -133,8 +189,6 @@ public class PetServiceImpl implements PetService {
 
 		List<Pet> pets = petRepository.findByOwnerId(ownerId);
 
-		pets.forEach(pet -> log.info("" + pet));
-
 		return pets;
 	}
 
@@ -148,4 +202,18 @@ public class PetServiceImpl implements PetService {
 		return petRepository.findAll();
 
 	}
+
+	/**
+	 * 
+	 * @param ownerId
+	 * @param typeId
+	 * @param name
+	 * @param pageable
+	 * @return
+	 */
+	@Override
+	public Page<PetDTO> findPage(Integer ownerId, Integer typeId, String name, Pageable pageable) {
+
+		return petRepository.findPage(ownerId, typeId, name, pageable);
+	}
 }
\ No newline at end of file
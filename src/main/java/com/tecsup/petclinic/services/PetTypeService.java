@@ -1,9 +1,11 @@
 
 package com.tecsup.petclinic.services;
 
+import com.tecsup.petclinic.dtos.PetTypeDTO;
 import com.tecsup.petclinic.entities.PetType;
 import com.tecsup.petclinic.exceptions.PetTypeNotFoundException;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface PetTypeService {
@@ -14,9 +16,14 @@ public interface PetTypeService {
 
     void delete(Long id) throws PetTypeNotFoundException;
 
+    /**
+     * Writes only {@code fields}, taking their values from {@code changes}, with a single {@code UPDATE}.
+     */
+    void patch(Long id, PetType changes, Collection<String> fields) throws PetTypeNotFoundException;
+
     PetType findById(Long id) throws PetTypeNotFoundException;
 
     List<PetType> findByName(String name);
 
-    List<PetType> findAll();
+    List<PetTypeDTO> findAll();
 }
\ No newline at end of file
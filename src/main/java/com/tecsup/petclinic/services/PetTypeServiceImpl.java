@@ -1,36 +1,64 @@
 package com.tecsup.petclinic.services;
 
+import com.tecsup.petclinic.dtos.PetTypeDTO;
 import com.tecsup.petclinic.entities.PetType;
 import com.tecsup.petclinic.exceptions.PetTypeNotFoundException;
+import com.tecsup.petclinic.repositories.EntityPatcher;
 import com.tecsup.petclinic.repositories.PetTypeRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@Transactional(readOnly = true)
 @Slf4j
 public class PetTypeServiceImpl implements PetTypeService {
 
     @Autowired
     private PetTypeRepository petTypeRepository;
 
+    @Autowired
+    private EntityPatcher entityPatcher;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
+    @Transactional
     public PetType create(PetType petType) {
-        return petTypeRepository.save(petType);
+        PetType saved = petTypeRepository.save(petType);
+        eventPublisher.publishEvent(new EntityChangedEvent(PetType.class, saved.getId()));
+        return saved;
     }
 
     @Override
+    @Transactional
     public PetType update(PetType petType) {
-        return petTypeRepository.save(petType);
+        PetType saved = petTypeRepository.save(petType);
+        eventPublisher.publishEvent(new EntityChangedEvent(PetType.class, saved.getId()));
+        return saved;
     }
 
     @Override
+    @Transactional
     public void delete(Long id) throws PetTypeNotFoundException {
-        PetType petType = findById(id);
-        petTypeRepository.delete(petType);
+        if (petTypeRepository.removeById(id) == 0)
+            throw new PetTypeNotFoundException("Tipo de mascota no encontrado con ID: " + id);
+        eventPublisher.publishEvent(new EntityChangedEvent(PetType.class, id));
+    }
+
+    @Override
+    @Transactional
+    public void patch(Long id, PetType changes, Collection<String> fields) throws PetTypeNotFoundException {
+        if (entityPatcher.patch(PetType.class, id, changes, fields, null) == 0)
+            throw new PetTypeNotFoundException("Tipo de mascota no encontrado con ID: " + id);
+        eventPublisher.publishEvent(new EntityChangedEvent(PetType.class, id));
     }
 
     @Override
@@ -47,7 +75,7 @@ public class PetTypeServiceImpl implements PetTypeService {
     }
 
     @Override
-    public List<PetType> findAll() {
-        return petTypeRepository.findAll();
+    public List<PetTypeDTO> findAll() {
+        return petTypeRepository.findAllDTOs();
     }
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.tecsup.petclinic.services;
 
+import com.tecsup.petclinic.dtos.SpecialtyDTO;
 import com.tecsup.petclinic.entities.Specialty;
 import com.tecsup.petclinic.exceptions.SpecialtyNotFoundException;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface SpecialtyService {
@@ -13,9 +15,14 @@ public interface SpecialtyService {
 
     void delete(Long id) throws SpecialtyNotFoundException;
 
+    /**
+     * Writes only {@code fields}, taking their values from {@code changes}, with a single {@code UPDATE}.
+     */
+    void patch(Long id, Specialty changes, Collection<String> fields) throws SpecialtyNotFoundException;
+
     Specialty findById(Long id) throws SpecialtyNotFoundException;
 
     List<Specialty> findByName(String name);
 
-    List<Specialty> findAll();
+    List<SpecialtyDTO> findAll();
 }
\ No newline at end of file
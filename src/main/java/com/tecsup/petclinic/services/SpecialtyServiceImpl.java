@@ -1,36 +1,75 @@
 package com.tecsup.petclinic.services;
 
+import com.tecsup.petclinic.dtos.SpecialtyDTO;
 import com.tecsup.petclinic.entities.Specialty;
+import com.tecsup.petclinic.entities.VetSpecialty;
 import com.tecsup.petclinic.exceptions.SpecialtyNotFoundException;
+import com.tecsup.petclinic.repositories.EntityPatcher;
 import com.tecsup.petclinic.repositories.SpecialtyRepository;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@Transactional(readOnly = true)
 @Slf4j
 public class SpecialtyServiceImpl implements SpecialtyService {
 
     @Autowired
     private SpecialtyRepository specialtyRepository;
 
+    @Autowired
+    private EntityPatcher entityPatcher;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @Override
+    @Transactional
     public Specialty create(Specialty specialty) {
-        return specialtyRepository.save(specialty);
+        Specialty saved = specialtyRepository.save(specialty);
+        eventPublisher.publishEvent(new EntityChangedEvent(Specialty.class, saved.getId()));
+        return saved;
     }
 
     @Override
+    @Transactional
     public Specialty update(Specialty specialty) {
-        return specialtyRepository.save(specialty);
+        Specialty saved = specialtyRepository.save(specialty);
+        eventPublisher.publishEvent(new EntityChangedEvent(Specialty.class, saved.getId()));
+        return saved;
     }
 
     @Override
+    @Transactional
     public void delete(Long id) throws SpecialtyNotFoundException {
-        Specialty specialty = findById(id);
-        specialtyRepository.delete(specialty);
+        if (specialtyRepository.removeById(id) == 0)
+            throw new SpecialtyNotFoundException("Especialidad no encontrada con ID: " + id);
+        // ON DELETE CASCADE borra sus vet_specialties sin pasar por Hibernate
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(VetSpecialty.class);
+        cache.evictDefaultQueryRegion();
+        eventPublisher.publishEvent(new EntityChangedEvent(Specialty.class, id));
+    }
+
+    @Override
+    @Transactional
+    public void patch(Long id, Specialty changes, Collection<String> fields) throws SpecialtyNotFoundException {
+        if (entityPatcher.patch(Specialty.class, id, changes, fields, null) == 0)
+            throw new SpecialtyNotFoundException("Especialidad no encontrada con ID: " + id);
+        eventPublisher.publishEvent(new EntityChangedEvent(Specialty.class, id));
     }
 
     @Override
@@ -47,7 +86,7 @@ public class SpecialtyServiceImpl implements SpecialtyService {
     }
 
     @Override
-    public List<Specialty> findAll() {
-        return specialtyRepository.findAll();
+    public List<SpecialtyDTO> findAll() {
+        return specialtyRepository.findAllDTOs();
     }
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.tecsup.petclinic.services;
 
+import com.tecsup.petclinic.dtos.VetDTO;
 import com.tecsup.petclinic.entities.Vet;
 import com.tecsup.petclinic.exceptions.VetNotFoundException;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface VetService {
@@ -13,11 +15,27 @@ public interface VetService {
 
     void delete(Long id) throws VetNotFoundException;
 
+    /**
+     * Deletes the vet with a single {@code DELETE}; {@code version} is the expected
+     * {@code @Version}, or null to delete whatever version is stored.
+     */
+    void delete(Long id, Integer version) throws VetNotFoundException;
+
+    /**
+     * Writes only {@code fields}, taking their values from {@code changes}, with a single {@code UPDATE}.
+     */
+    void patch(Long id, Vet changes, Collection<String> fields, Integer version) throws VetNotFoundException;
+
     Vet findById(Long id) throws VetNotFoundException;
 
+    /**
+     * Current {@code @Version} of the vet.
+     */
+    Integer findVersion(Long id) throws VetNotFoundException;
+
     List<Vet> findByFirstName(String firstName);
 
     List<Vet> findByLastName(String lastName);
 
-    List<Vet> findAll();
+    List<VetDTO> findAll();
 }
\ No newline at end of file
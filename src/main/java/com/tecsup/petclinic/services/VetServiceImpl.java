@@ -1,37 +1,107 @@
 
 package com.tecsup.petclinic.services;
 
+import com.tecsup.petclinic.dtos.VetDTO;
 import com.tecsup.petclinic.entities.Vet;
+import com.tecsup.petclinic.entities.VetSpecialty;
+import com.tecsup.petclinic.entities.VisitDailyStats;
+import com.tecsup.petclinic.entities.VisitDailyStatsId;
 import com.tecsup.petclinic.exceptions.VetNotFoundException;
+import com.tecsup.petclinic.repositories.EntityPatcher;
 import com.tecsup.petclinic.repositories.VetRepository;
+import com.tecsup.petclinic.repositories.VisitDailyStatsRepository;
+import com.tecsup.petclinic.repositories.VisitRepository;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@Transactional(readOnly = true)
 @Slf4j
 public class VetServiceImpl implements VetService {
 
     @Autowired
     private VetRepository vetRepository;
 
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private VisitDailyStatsRepository dailyStatsRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityPatcher entityPatcher;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
+    @Transactional
     public Vet create(Vet vet) {
-        return vetRepository.save(vet);
+        Vet saved = vetRepository.save(vet);
+        eventPublisher.publishEvent(new EntityChangedEvent(Vet.class, saved.getId()));
+        return saved;
     }
 
     @Override
+    @Transactional
     public Vet update(Vet vet) {
-        return vetRepository.save(vet);
+        Vet saved = vetRepository.save(vet);
+        eventPublisher.publishEvent(new EntityChangedEvent(Vet.class, saved.getId()));
+        return saved;
     }
 
     @Override
+    @Transactional
     public void delete(Long id) throws VetNotFoundException {
-        Vet vet = findById(id);
-        vetRepository.delete(vet);
+        delete(id, null);
+    }
+
+    @Override
+    @Transactional
+    public void delete(Long id, Integer version) throws VetNotFoundException {
+        // ON DELETE SET NULL deja sus visitas sin veterinario: sus grupos pasan a NO_VET
+        List<VisitDailyStatsId> buckets = visitRepository.findDailyStatsIdsByVetId(id.intValue());
+        if (vetRepository.removeById(id, version) == 0)
+            throw notFoundOrStale(id, version);
+        dailyStatsRepository.refreshBuckets(buckets);
+        dailyStatsRepository.refreshBuckets(buckets.stream()
+                .map(b -> new VisitDailyStatsId(b.getVisitDate(), VisitDailyStats.NO_VET, b.getTypeId()))
+                .distinct()
+                .toList());
+        // ON DELETE CASCADE borra sus vet_specialties sin pasar por Hibernate
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(VetSpecialty.class);
+        cache.evictDefaultQueryRegion();
+        eventPublisher.publishEvent(new EntityChangedEvent(Vet.class, id));
+    }
+
+    @Override
+    @Transactional
+    public void patch(Long id, Vet changes, Collection<String> fields, Integer version) throws VetNotFoundException {
+        if (entityPatcher.patch(Vet.class, id, changes, fields, version) == 0)
+            throw notFoundOrStale(id, version);
+        eventPublisher.publishEvent(new EntityChangedEvent(Vet.class, id));
+    }
+
+    // Solo ante 0 filas afectadas se consulta por qué: no existe o la versión no coincide
+    private VetNotFoundException notFoundOrStale(Long id, Integer version) {
+        if (version != null && vetRepository.existsById(id))
+            throw new ObjectOptimisticLockingFailureException(Vet.class, id);
+        return new VetNotFoundException("Veterinario no encontrado con ID: " + id);
     }
 
     @Override
@@ -42,6 +112,12 @@ public class VetServiceImpl implements VetService {
         return vet.get();
     }
 
+    @Override
+    public Integer findVersion(Long id) throws VetNotFoundException {
+        // Los veterinarios están en la caché de segundo nivel: leer la entidad no cuesta una consulta
+        return findById(id).getVersion();
+    }
+
     @Override
     public List<Vet> findByFirstName(String firstName) {
         return vetRepository.findByFirstName(firstName);
@@ -53,7 +129,7 @@ public class VetServiceImpl implements VetService {
     }
 
     @Override
-    public List<Vet> findAll() {
-        return vetRepository.findAll();
+    public List<VetDTO> findAll() {
+        return vetRepository.findAllDTOs();
     }
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package com.tecsup.petclinic.services;
 
+import com.tecsup.petclinic.dtos.VetSpecialtyDTO;
 import com.tecsup.petclinic.entities.VetSpecialty;
 import com.tecsup.petclinic.entities.VetSpecialtyId;
 import com.tecsup.petclinic.exceptions.VetSpecialtyNotFoundException;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface VetSpecialtyService {
@@ -14,11 +16,23 @@ public interface VetSpecialtyService {
 
     void delete(Long vetId, Long specialtyId) throws VetSpecialtyNotFoundException;
 
+    /**
+     * Re-keys the assignment {@code (vetId, specialtyId)} to the ids of {@code target} in one
+     * transaction. An existing assignment with the target ids is replaced by the moved one.
+     */
+    VetSpecialty move(Long vetId, Long specialtyId, VetSpecialty target) throws VetSpecialtyNotFoundException;
+
+    /**
+     * Makes {@code specialtyIds} the full set of specialties of the vet, writing only the
+     * assignments that change: one DELETE for the removed ones and one JDBC batch for the new ones.
+     */
+    List<VetSpecialty> replaceForVet(Long vetId, Collection<Long> specialtyIds);
+
     VetSpecialty findById(Long vetId, Long specialtyId) throws VetSpecialtyNotFoundException;
 
-    List<VetSpecialty> findByVetId(Long vetId);
+    List<VetSpecialtyDTO> findByVetId(Long vetId);
 
-    List<VetSpecialty> findBySpecialtyId(Long specialtyId);
+    List<VetSpecialtyDTO> findBySpecialtyId(Long specialtyId);
 
-    List<VetSpecialty> findAll();
+    List<VetSpecialtyDTO> findAll();
 }
\ No newline at end of file
@@ -1,38 +1,84 @@
 
 package com.tecsup.petclinic.services;
 
+import com.tecsup.petclinic.dtos.VetSpecialtyDTO;
 import com.tecsup.petclinic.entities.VetSpecialty;
 import com.tecsup.petclinic.entities.VetSpecialtyId;
 import com.tecsup.petclinic.exceptions.VetSpecialtyNotFoundException;
 import com.tecsup.petclinic.repositories.VetSpecialtyRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
+@Transactional(readOnly = true)
 @Slf4j
 public class VetSpecialtyServiceImpl implements VetSpecialtyService {
 
     @Autowired
     private VetSpecialtyRepository vetSpecialtyRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Override
+    @Transactional
     public VetSpecialty create(VetSpecialty vetSpecialty) {
         return vetSpecialtyRepository.save(vetSpecialty);
     }
 
     @Override
+    @Transactional
     public VetSpecialty update(VetSpecialty vetSpecialty) {
         return vetSpecialtyRepository.save(vetSpecialty);
     }
 
     @Override
+    @Transactional
     public void delete(Long vetId, Long specialtyId) throws VetSpecialtyNotFoundException {
-        VetSpecialty vetSpecialty = findById(vetId, specialtyId);
-        vetSpecialtyRepository.delete(vetSpecialty);
+        if (vetSpecialtyRepository.removeById(vetId, specialtyId) == 0)
+            throw new VetSpecialtyNotFoundException("Relación Vet-Specialty no encontrada: vetId=" + vetId + ", specialtyId=" + specialtyId);
+    }
+
+    @Override
+    // La excepción es checked: sin rollbackFor se confirmaría el borrado del destino
+    @Transactional(rollbackFor = VetSpecialtyNotFoundException.class)
+    public VetSpecialty move(Long vetId, Long specialtyId, VetSpecialty target) throws VetSpecialtyNotFoundException {
+        if (vetId.equals(target.getVetId()) && specialtyId.equals(target.getSpecialtyId()))
+            return findById(vetId, specialtyId);
+        vetSpecialtyRepository.removeById(target.getVetId(), target.getSpecialtyId());
+        if (vetSpecialtyRepository.moveById(vetId, specialtyId, target.getVetId(), target.getSpecialtyId()) == 0)
+            throw new VetSpecialtyNotFoundException("Relación Vet-Specialty no encontrada: vetId=" + vetId + ", specialtyId=" + specialtyId);
+        return new VetSpecialty(target.getVetId(), target.getSpecialtyId());
+    }
+
+    @Override
+    @Transactional
+    public List<VetSpecialty> replaceForVet(Long vetId, Collection<Long> specialtyIds) {
+        Set<Long> wanted = new LinkedHashSet<>(specialtyIds);
+        Set<Long> current = vetSpecialtyRepository.findByVetId(vetId).stream()
+                .map(VetSpecialty::getSpecialtyId)
+                .collect(Collectors.toSet());
+
+        List<Long> removed = current.stream().filter(id -> !wanted.contains(id)).toList();
+        if (!removed.isEmpty())
+            vetSpecialtyRepository.removeByVetIdAndSpecialtyIds(vetId, removed);
+        // persist y no save: save haría un SELECT por fila para decidir entre insert y merge
+        for (Long specialtyId : wanted) {
+            if (!current.contains(specialtyId))
+                entityManager.persist(new VetSpecialty(vetId, specialtyId));
+        }
+        return wanted.stream().map(id -> new VetSpecialty(vetId, id)).toList();
     }
 
     @Override
@@ -45,17 +91,17 @@ public class VetSpecialtyServiceImpl implements VetSpecialtyService {
     }
 
     @Override
-    public List<VetSpecialty> findByVetId(Long vetId) {
-        return vetSpecialtyRepository.findByVetId(vetId);
+    public List<VetSpecialtyDTO> findByVetId(Long vetId) {
+        return vetSpecialtyRepository.findDTOsByVetId(vetId);
     }
 
     @Override
-    public List<VetSpecialty> findBySpecialtyId(Long specialtyId) {
-        return vetSpecialtyRepository.findBySpecialtyId(specialtyId);
+    public List<VetSpecialtyDTO> findBySpecialtyId(Long specialtyId) {
+        return vetSpecialtyRepository.findDTOsBySpecialtyId(specialtyId);
     }
 
     @Override
-    public List<VetSpecialty> findAll() {
-        return vetSpecialtyRepository.findAll();
+    public List<VetSpecialtyDTO> findAll() {
+        return vetSpecialtyRepository.findAllDTOs();
     }
 }
\ No newline at end of file
@@ -1,21 +1,58 @@
 package com.tecsup.petclinic.services;
 
+import com.tecsup.petclinic.dtos.VisitDTO;
+import com.tecsup.petclinic.dtos.VisitImportReport;
+import com.tecsup.petclinic.dtos.VisitStatsDTO;
 import com.tecsup.petclinic.entities.Visit;
+import com.tecsup.petclinic.exceptions.VisitNotFoundException;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface VisitService {
 
     Visit create(Visit visit);
 
+    /**
+     * Persists new visits in one transaction, flushed in JDBC batches.
+     */
+    List<Visit> createAll(List<Visit> visits);
+
+    /**
+     * Reads visits from {@code visits} and commits them in transactions of {@code chunkSize},
+     * rejecting records whose pet or vet does not exist. Ids in the input are ignored.
+     */
+    VisitImportReport importVisits(Iterator<Visit> visits, int chunkSize);
+
     Visit update(Visit visit);
 
-    void delete(Integer id) throws Exception;
+    void delete(Integer id) throws VisitNotFoundException;
+
+    /**
+     * Deletes the visit with a single {@code DELETE}; {@code version} is the expected
+     * {@code @Version}, or null to delete whatever version is stored.
+     */
+    void delete(Integer id, Integer version) throws VisitNotFoundException;
 
-    Visit findById(Integer id) throws Exception;
+    /**
+     * Writes only {@code fields}, taking their values from {@code changes}, with a single {@code UPDATE}.
+     */
+    void patch(Integer id, Visit changes, Collection<String> fields, Integer version) throws VisitNotFoundException;
 
-    List<Visit> findAll();
+    Visit findById(Integer id) throws VisitNotFoundException;
+
+    /**
+     * Current {@code @Version} of the visit, read without loading the row.
+     */
+    Integer findVersion(Integer id) throws VisitNotFoundException;
+
+    /**
+     * Every visit as a read-only row, without loading entities.
+     */
+    List<VisitDTO> findAll();
 
     List<Visit> findByPetId(Integer petId);
 
@@ -26,4 +63,30 @@ public interface VisitService {
     List<Visit> findByDate(LocalDate date);
 
     List<Visit> findByPetIdAndDate(Integer petId, LocalDate date);
+
+    /**
+     * Keyset page: up to {@code limit} visits with id greater than {@code afterId}, ordered by id.
+     */
+    List<VisitDTO> findAfter(Integer afterId, int limit);
+
+    /**
+     * Hands every visit, ordered by id, to {@code consumer} without holding the whole table in memory.
+     */
+    void streamAll(Consumer<VisitDTO> consumer);
+
+    /**
+     * Visit count and revenue per day, week or month, read from the visit_daily_stats rollup.
+     * {@code from} and {@code to} are inclusive and optional.
+     */
+    List<VisitStatsDTO> statsByPeriod(VisitStatsDTO.Period period, LocalDate from, LocalDate to);
+
+    List<VisitStatsDTO> statsByVet(LocalDate from, LocalDate to);
+
+    List<VisitStatsDTO> statsByPetType(LocalDate from, LocalDate to);
+
+    /**
+     * Recomputes the visit_daily_stats rows between {@code from} and {@code to} (optional, inclusive)
+     * from the visits table. Returns the number of rollup rows written.
+     */
+    int rebuildDailyStats(LocalDate from, LocalDate to);
 }
\ No newline at end of file
@@ -1,50 +1,252 @@
 package com.tecsup.petclinic.services;
 
+import com.tecsup.petclinic.dtos.VisitDTO;
+import com.tecsup.petclinic.dtos.VisitImportReport;
+import com.tecsup.petclinic.dtos.VisitImportReport.ChunkReport;
+import com.tecsup.petclinic.dtos.VisitStatsDTO;
 import com.tecsup.petclinic.entities.Visit;
+import com.tecsup.petclinic.entities.VisitDailyStatsId;
+import com.tecsup.petclinic.exceptions.VisitNotFoundException;
+import com.tecsup.petclinic.repositories.EntityPatcher;
+import com.tecsup.petclinic.repositories.PetRepository;
+import com.tecsup.petclinic.repositories.VetRepository;
+import com.tecsup.petclinic.repositories.VisitDailyStatsRepository;
 import com.tecsup.petclinic.repositories.VisitRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Transactional(readOnly = true)
 @Slf4j
 public class VisitServiceImpl implements VisitService {
 
+    // Límites del tipo DATE de MySQL para los rangos opcionales de fechas
+    private static final LocalDate MIN_DATE = LocalDate.of(1000, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    // Campos que deciden el grupo o las métricas de visit_daily_stats
+    private static final Set<String> ROLLUP_FIELDS = Set.of("visitDate", "vetId", "petId", "cost");
+
     @Autowired
     VisitRepository visitRepository;
 
+    @Autowired
+    PetRepository petRepository;
+
+    @Autowired
+    VetRepository vetRepository;
+
+    @Autowired
+    VisitDailyStatsRepository dailyStatsRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    EntityPatcher entityPatcher;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    int batchSize;
+
     @Override
+    @Transactional
     public Visit create(Visit visit) {
-        return visitRepository.save(visit);
+        Visit newVisit = visitRepository.save(visit);
+        dailyStatsRepository.addVisits(List.of(newVisit));
+        return newVisit;
     }
 
     @Override
+    @Transactional
+    public List<Visit> createAll(List<Visit> visits) {
+        for (int i = 0; i < visits.size(); i++) {
+            entityManager.persist(visits.get(i));
+            // Envía el lote y libera memoria cada batch_size inserciones
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        dailyStatsRepository.addVisits(visits);
+        return visits;
+    }
+
+    @Override
+    // Sin transacción envolvente: cada bloque hace commit por su cuenta en importChunk
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public VisitImportReport importVisits(Iterator<Visit> visits, int chunkSize) {
+        VisitImportReport report = new VisitImportReport();
+        List<Visit> chunk = new ArrayList<>(chunkSize);
+        while (true) {
+            // Solo la lectura del cuerpo se informa como error de registro; los fallos de un bloque se propagan
+            try {
+                if (!visits.hasNext())
+                    break;
+                chunk.add(visits.next());
+            } catch (RuntimeException e) {
+                // Lo leído antes del error se importa igualmente
+                report.setError("Record " + (report.getReceived() + chunk.size() + 1) + ": " + e.getMessage());
+                break;
+            }
+            if (chunk.size() == chunkSize) {
+                report.addChunk(importChunk(report, chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty())
+            report.addChunk(importChunk(report, chunk));
+        return report;
+    }
+
+    private ChunkReport importChunk(VisitImportReport report, List<Visit> chunk) {
+        int firstRecord = report.getReceived() + 1;
+        ChunkReport result = new ChunkReport(report.getChunks().size() + 1, firstRecord, chunk.size());
+
+        Set<Integer> petIds = chunk.stream().map(Visit::getPetId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> vetIds = chunk.stream().map(Visit::getVetId).filter(Objects::nonNull)
+                .map(Integer::longValue).collect(Collectors.toSet());
+        Set<Integer> existingPets = petIds.isEmpty() ? Set.of() : petRepository.findExistingIds(petIds);
+        Set<Long> existingVets = vetIds.isEmpty() ? Set.of() : vetRepository.findExistingIds(vetIds);
+
+        List<Visit> valid = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Visit visit = chunk.get(i);
+            String problem = validate(visit, existingPets, existingVets);
+            if (problem != null) {
+                result.getErrors().add("Record " + (firstRecord + i) + ": " + problem);
+            } else {
+                visit.setId(null);
+                valid.add(visit);
+            }
+        }
+
+        try {
+            // createAll se invoca desde el propio bean, la transacción la abre el template
+            transactionTemplate.executeWithoutResult(status -> createAll(valid));
+            result.setImported(valid.size());
+        } catch (RuntimeException e) {
+            log.warn("Visit import chunk {} rolled back", result.getChunk(), e);
+            result.getErrors().add("Chunk rolled back: " + e.getMessage());
+        }
+        return result;
+    }
+
+    private String validate(Visit visit, Set<Integer> existingPets, Set<Long> existingVets) {
+        if (visit.getPetId() == null)
+            return "petId is required";
+        if (visit.getVisitDate() == null)
+            return "visitDate is required";
+        if (!existingPets.contains(visit.getPetId()))
+            return "pet not found with ID: " + visit.getPetId();
+        if (visit.getVetId() != null && !existingVets.contains(visit.getVetId().longValue()))
+            return "vet not found with ID: " + visit.getVetId();
+        return null;
+    }
+
+    @Override
+    @Transactional
     public Visit update(Visit visit) {
-        return visitRepository.save(visit);
+        Optional<VisitDailyStatsId> before = visit.getId() == null
+                ? Optional.empty() : visitRepository.findDailyStatsId(visit.getId());
+        Visit updatedVisit = visitRepository.saveAndFlush(visit);
+        VisitDailyStatsId after = visitRepository.findDailyStatsId(updatedVisit.getId()).orElseThrow();
+
+        // min/max no se pueden restar: se recalculan los grupos afectados
+        before.filter(id -> !id.equals(after)).ifPresent(this::refreshDailyStats);
+        refreshDailyStats(after);
+        return updatedVisit;
+    }
+
+    @Override
+    @Transactional
+    public void delete(Integer id) throws VisitNotFoundException {
+        delete(id, null);
     }
 
     @Override
-    public void delete(Integer id) throws Exception {
-        Visit visit = findById(id);
-        visitRepository.delete(visit);
+    @Transactional
+    public void delete(Integer id, Integer version) throws VisitNotFoundException {
+        // El grupo de visit_daily_stats se lee antes de borrar, y de paso confirma que existe
+        VisitDailyStatsId before = visitRepository.findDailyStatsId(id)
+                .orElseThrow(() -> new VisitNotFoundException("Visit not found with ID: " + id));
+        if (visitRepository.removeById(id, version) == 0)
+            throw notFoundOrStale(id, version);
+        refreshDailyStats(before);
     }
 
     @Override
-    public Visit findById(Integer id) throws Exception {
+    @Transactional
+    public void patch(Integer id, Visit changes, Collection<String> fields, Integer version) throws VisitNotFoundException {
+        if (Collections.disjoint(fields, ROLLUP_FIELDS)) {
+            if (entityPatcher.patch(Visit.class, id, changes, fields, version) == 0)
+                throw notFoundOrStale(id, version);
+            return;
+        }
+
+        VisitDailyStatsId before = visitRepository.findDailyStatsId(id)
+                .orElseThrow(() -> new VisitNotFoundException("Visit not found with ID: " + id));
+        if (entityPatcher.patch(Visit.class, id, changes, fields, version) == 0)
+            throw notFoundOrStale(id, version);
+        VisitDailyStatsId after = visitRepository.findDailyStatsId(id).orElseThrow();
+        if (!before.equals(after))
+            refreshDailyStats(before);
+        refreshDailyStats(after);
+    }
+
+    // Solo ante 0 filas afectadas se consulta por qué: no existe o la versión no coincide
+    private VisitNotFoundException notFoundOrStale(Integer id, Integer version) {
+        if (version != null && visitRepository.existsById(id))
+            throw new ObjectOptimisticLockingFailureException(Visit.class, id);
+        return new VisitNotFoundException("Visit not found with ID: " + id);
+    }
+
+    private void refreshDailyStats(VisitDailyStatsId id) {
+        dailyStatsRepository.refreshBucket(id);
+    }
+
+    @Override
+    public Visit findById(Integer id) throws VisitNotFoundException {
         Optional<Visit> visit = visitRepository.findById(id);
         if (!visit.isPresent()) {
-            throw new Exception("Visit not found with ID: " + id);
+            throw new VisitNotFoundException("Visit not found with ID: " + id);
         }
         return visit.get();
     }
 
     @Override
-    public List<Visit> findAll() {
-        return visitRepository.findAll();
+    public Integer findVersion(Integer id) throws VisitNotFoundException {
+        return visitRepository.findVersionById(id)
+                .orElseThrow(() -> new VisitNotFoundException("Visit not found with ID: " + id));
+    }
+
+    @Override
+    public List<VisitDTO> findAll() {
+        return visitRepository.findAllDTOs();
     }
 
     @Override
@@ -71,4 +273,49 @@ public class VisitServiceImpl implements VisitService {
     public List<Visit> findByPetIdAndDate(Integer petId, LocalDate date) {
         return visitRepository.findByPetIdAndVisitDate(petId, date);
     }
-}
\ No newline at end of file
+
+    @Override
+    public List<VisitDTO> findAfter(Integer afterId, int limit) {
+        return visitRepository.findDTOsAfter(afterId, Limit.of(limit));
+    }
+
+    @Override
+    public void streamAll(Consumer<VisitDTO> consumer) {
+        // Filas sin entidad: el contexto de persistencia no crece con cada visita leída
+        try (Stream<VisitDTO> visits = visitRepository.streamDTOsOrderById()) {
+            visits.forEach(consumer);
+        }
+    }
+
+    @Override
+    public List<VisitStatsDTO> statsByPeriod(VisitStatsDTO.Period period, LocalDate from, LocalDate to) {
+        LocalDate start = Objects.requireNonNullElse(from, MIN_DATE);
+        LocalDate end = Objects.requireNonNullElse(to, MAX_DATE);
+        return switch (period) {
+            case DAY -> dailyStatsRepository.statsByDay(start, end);
+            case WEEK -> dailyStatsRepository.statsByWeek(start, end);
+            case MONTH -> dailyStatsRepository.statsByMonth(start, end);
+        };
+    }
+
+    @Override
+    public List<VisitStatsDTO> statsByVet(LocalDate from, LocalDate to) {
+        return dailyStatsRepository.statsByVet(Objects.requireNonNullElse(from, MIN_DATE), Objects.requireNonNullElse(to, MAX_DATE));
+    }
+
+    @Override
+    public List<VisitStatsDTO> statsByPetType(LocalDate from, LocalDate to) {
+        return dailyStatsRepository.statsByPetType(Objects.requireNonNullElse(from, MIN_DATE), Objects.requireNonNullElse(to, MAX_DATE));
+    }
+
+    @Override
+    @Transactional
+    public int rebuildDailyStats(LocalDate from, LocalDate to) {
+        LocalDate start = Objects.requireNonNullElse(from, MIN_DATE);
+        LocalDate end = Objects.requireNonNullElse(to, MAX_DATE);
+        dailyStatsRepository.deleteRange(start, end);
+        int rows = dailyStatsRepository.insertRange(start, end);
+        log.info("Rebuilt visit_daily_stats from {} to {}: {} rows", start, end, rows);
+        return rows;
+    }
+}
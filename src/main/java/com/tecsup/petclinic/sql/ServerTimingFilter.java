@@ -0,0 +1,94 @@
+package com.tecsup.petclinic.sql;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Adds {@code Server-Timing: db;dur=<ms>;desc="<n> statements"} to every response.
+ * <p>
+ * Headers can only be set before the response is committed, so the value is
+ * written the first time the body is requested (by then the controller has
+ * finished its queries) or, for empty bodies, once the chain returns.
+ */
+@Component
+@ConditionalOnProperty(prefix = "petclinic.sql", name = {"enabled", "server-timing"}, matchIfMissing = true)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Server-Timing";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ServerTimingResponse wrapped = new ServerTimingResponse(response, SqlTimingContext.begin());
+        try {
+            chain.doFilter(request, wrapped);
+        } finally {
+            wrapped.writeHeader();
+            SqlTimingContext.end();
+        }
+    }
+
+    private static final class ServerTimingResponse extends HttpServletResponseWrapper {
+
+        private final SqlTimingContext timing;
+        private boolean written;
+
+        ServerTimingResponse(HttpServletResponse response, SqlTimingContext timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        void writeHeader() {
+            if (!written && !isCommitted()) {
+                written = true;
+                setHeader(HEADER, timing.toServerTiming());
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeader();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.tecsup.petclinic.sql;
+
+import java.util.Locale;
+
+/**
+ * SQL statements executed by the current HTTP request, accumulated by
+ * {@link SqlTimingListener} and reported by {@link ServerTimingFilter}.
+ * Outside a request (startup, schedulers, tests without MockMvc) nothing is recorded.
+ */
+final class SqlTimingContext {
+
+    private static final ThreadLocal<SqlTimingContext> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long nanos;
+
+    private SqlTimingContext() {
+    }
+
+    static SqlTimingContext begin() {
+        SqlTimingContext context = new SqlTimingContext();
+        CURRENT.set(context);
+        return context;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static void record(long elapsedNanos) {
+        SqlTimingContext context = CURRENT.get();
+        if (context != null) {
+            context.statements++;
+            context.nanos += elapsedNanos;
+        }
+    }
+
+    int getStatements() {
+        return statements;
+    }
+
+    /**
+     * Value for the {@code Server-Timing} header, e.g. {@code db;dur=1.234;desc="3 statements"}.
+     */
+    String toServerTiming() {
+        return String.format(Locale.ROOT, "db;dur=%.3f;desc=\"%d statements\"", nanos / 1_000_000.0, statements);
+    }
+}
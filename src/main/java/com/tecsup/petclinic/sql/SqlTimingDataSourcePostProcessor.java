@@ -0,0 +1,39 @@
+package com.tecsup.petclinic.sql;
+
+import javax.sql.DataSource;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps the application DataSource with a datasource-proxy that reports every
+ * execution to {@link SqlTimingListener}. Replaces {@code spring.jpa.show-sql}:
+ * only slow statements are logged, everything else just feeds Server-Timing.
+ * <p>
+ * Hikari stays reachable through {@code unwrap}, so pool metrics keep working.
+ */
+@Component
+@ConditionalOnProperty(prefix = "petclinic.sql", name = "enabled", matchIfMissing = true)
+public class SqlTimingDataSourcePostProcessor implements BeanPostProcessor {
+
+    // Perezoso: un BeanPostProcessor no debe forzar la creación temprana de sus dependencias
+    private final ObjectProvider<SqlTimingListener> listener;
+
+    public SqlTimingDataSourcePostProcessor(ObjectProvider<SqlTimingListener> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+            return ProxyDataSourceBuilder.create(beanName, dataSource)
+                    .listener(listener.getObject())
+                    .build();
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,107 @@
+package com.tecsup.petclinic.sql;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every JDBC execution going through the proxied DataSource.
+ * The duration is added to the current request's {@link SqlTimingContext};
+ * executions at or above {@code petclinic.sql.slow-threshold} are logged on
+ * {@code petclinic.sql.slow} with their bound parameters and the application
+ * method that issued them.
+ */
+@Slf4j(topic = "petclinic.sql.slow")
+@Component
+public class SqlTimingListener implements QueryExecutionListener {
+
+    private static final String START = SqlTimingListener.class.getName() + ".start";
+
+    private static final String APP_PACKAGE = "com.tecsup.petclinic.";
+
+    // Infraestructura propia que no cuenta como "llamador"
+    private static final List<String> IGNORED_PACKAGES = List.of(
+            APP_PACKAGE + "sql.", APP_PACKAGE + "metrics.", APP_PACKAGE + "audit.");
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    @Autowired
+    private SqlTimingProperties properties;
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START, Long.class);
+        if (start == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        SqlTimingContext.record(elapsed);
+
+        if (elapsed < properties.getSlowThreshold().toNanos() || !log.isWarnEnabled()) {
+            return;
+        }
+        double rate = properties.getSampleRate();
+        if (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) {
+            return;
+        }
+        log.warn("durationMs={} batch={} success={} caller={} sql={} params={}",
+                String.format(Locale.ROOT, "%.3f", elapsed / 1_000_000.0),
+                execInfo.isBatch() ? execInfo.getBatchSize() : 0,
+                execInfo.isSuccess(),
+                caller().orElse("?"),
+                truncate(queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "))),
+                properties.isLogParameters() ? truncate(parameters(queryInfoList)) : "[hidden]");
+    }
+
+    /**
+     * First application frame below the proxy, e.g. {@code OwnerServiceImpl.findSummary:97}.
+     * Repository interfaces have no frames of their own, so this is normally the service method.
+     */
+    private static Optional<String> caller() {
+        return WALKER.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(APP_PACKAGE))
+                .filter(f -> IGNORED_PACKAGES.stream().noneMatch(f.getClassName()::startsWith))
+                .filter(f -> !f.getClassName().contains("$$"))
+                .findFirst()
+                .map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1)
+                        + "." + f.getMethodName() + ":" + f.getLineNumber()));
+    }
+
+    // [[v1, v2], [v1, v2]]: una lista por fila del batch, en orden de índice
+    private static String parameters(List<QueryInfo> queryInfoList) {
+        return queryInfoList.stream()
+                .flatMap(query -> query.getParametersList().stream())
+                .map(ops -> ops.stream()
+                        .map(SqlTimingListener::value)
+                        .collect(Collectors.joining(", ", "[", "]")))
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private static String value(ParameterSetOperation op) {
+        Object[] args = op.getArgs();
+        if (ParameterSetOperation.isSetNullParameterOperation(op) || args.length < 2) {
+            return "null";
+        }
+        return String.valueOf(args[1]);
+    }
+
+    private String truncate(String value) {
+        int max = properties.getMaxPayloadLength();
+        return value.length() <= max ? value : value.substring(0, max) + "...";
+    }
+}
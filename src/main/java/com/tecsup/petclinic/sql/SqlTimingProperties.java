@@ -0,0 +1,34 @@
+package com.tecsup.petclinic.sql;
+
+import java.time.Duration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the JDBC proxy, bound from {@code petclinic.sql.*}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "petclinic.sql")
+public class SqlTimingProperties {
+
+    // Envolver el DataSource con el proxy (sin él no hay log lento ni Server-Timing)
+    private boolean enabled = true;
+
+    // Sentencias con duración >= umbral se registran en el logger petclinic.sql.slow
+    private Duration slowThreshold = Duration.ofMillis(100);
+
+    // Fracción de sentencias lentas registradas (0.0 - 1.0)
+    private double sampleRate = 1.0;
+
+    // Incluir los parámetros enlazados en el log
+    private boolean logParameters = true;
+
+    // Longitud máxima de SQL y parámetros en el mensaje
+    private int maxPayloadLength = 1024;
+
+    // Cabecera Server-Timing con número de sentencias y tiempo total de BD por petición
+    private boolean serverTiming = true;
+}
@@ -0,0 +1,40 @@
+package com.tecsup.petclinic.web;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary representations of every controller response, chosen through {@code Accept}:
+ * Smile ({@value #SMILE_VALUE}) and CBOR ({@value MediaType#APPLICATION_CBOR_VALUE}).
+ * JSON stays the default for {@code *}{@code /*}.
+ * <p>
+ * Spring MVC registers both converters on its own when the libraries are present, but with
+ * plain mappers; these replace them in the same position with Boot's Jackson settings, so
+ * dates, modules and ProblemDetail are written as in the JSON responses.
+ */
+@Configuration
+public class BinaryFormatsConfig {
+
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType SMILE = MediaType.valueOf(SMILE_VALUE);
+
+    // RFC 8742: CBOR items one after another, used by GET /visits/stream
+    public static final String CBOR_SEQ_VALUE = "application/cbor-seq";
+    public static final MediaType CBOR_SEQ = MediaType.valueOf(CBOR_SEQ_VALUE);
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,27 @@
+package com.tecsup.petclinic.web;
+
+import java.util.List;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings for {@link ResponseCompressionFilter}, bound from {@code petclinic.compression.*}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "petclinic.compression")
+public class CompressionProperties {
+
+    // gzip de las respuestas cuando el cliente envía Accept-Encoding: gzip
+    private boolean enabled = true;
+
+    // Respuestas más pequeñas se envían sin comprimir, con Content-Length
+    private DataSize minResponseSize = DataSize.ofKilobytes(2);
+
+    // Content-Type comprimibles (se ignoran los parámetros como charset)
+    private List<String> mimeTypes = List.of("application/json", "application/problem+json", "application/x-ndjson",
+            "text/csv", BinaryFormatsConfig.SMILE_VALUE, "application/cbor", BinaryFormatsConfig.CBOR_SEQ_VALUE);
+}
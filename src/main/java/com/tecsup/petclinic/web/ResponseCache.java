@@ -0,0 +1,122 @@
+package com.tecsup.petclinic.web;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tecsup.petclinic.entities.Owner;
+import com.tecsup.petclinic.entities.PetType;
+import com.tecsup.petclinic.entities.Specialty;
+import com.tecsup.petclinic.entities.Vet;
+import com.tecsup.petclinic.services.EntityChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Serialized bodies of the hot GET endpoints, keyed by path and representation
+ * (Accept and whether the client takes gzip), filled and served by {@link ResponseCacheFilter}.
+ * <p>
+ * Entries are dropped when a service reports a committed change through
+ * {@link EntityChangedEvent}. A response that was being rendered while that happened may
+ * hold the old data, so it is only kept if no eviction ran since it started
+ * (see {@link #generation()}).
+ */
+@Component
+@ConditionalOnProperty(prefix = "petclinic.response-cache", name = "enabled", matchIfMissing = true)
+@Slf4j
+public class ResponseCache {
+
+    // Rutas cacheables, sin query string: lo que sirven depende solo de la ruta y de la representación
+    private static final Pattern CACHEABLE = Pattern.compile("/types|/specialties|/vets|/owners/\\d+");
+
+    /**
+     * @param accept Accept header as sent (the negotiated Content-Type follows from it)
+     * @param gzip   whether Accept-Encoding allows gzip, see {@link ResponseCompressionFilter}
+     */
+    record Key(String path, String accept, boolean gzip) {
+    }
+
+    /**
+     * Status 200 response, with the headers that describe the body.
+     */
+    record Entry(String contentType, String contentEncoding, String eTag, List<String> vary, byte[] body) {
+    }
+
+    private final Cache<Key, Entry> entries;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ResponseCache(ResponseCacheProperties properties) {
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumSize().toBytes())
+                .weigher((Key key, Entry entry) -> entry.body().length)
+                .expireAfterWrite(properties.getTimeToLive())
+                .build();
+    }
+
+    static boolean cacheable(String path) {
+        return CACHEABLE.matcher(path).matches();
+    }
+
+    Entry get(Key key) {
+        return entries.getIfPresent(key);
+    }
+
+    /**
+     * Counter bumped by every eviction, read before rendering a response that may be stored.
+     */
+    long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Stores {@code entry} unless an eviction ran after {@code generation} was read.
+     */
+    void put(Key key, Entry entry, long generation) {
+        if (this.generation.get() != generation)
+            return;
+        entries.put(key, entry);
+        // Una invalidación entre la comprobación y el put no debe dejar la entrada vieja
+        if (this.generation.get() != generation)
+            entries.asMap().remove(key, entry);
+    }
+
+    /**
+     * Drops every representation of {@code path}.
+     */
+    public void evict(String path) {
+        generation.incrementAndGet();
+        entries.asMap().keySet().removeIf(key -> key.path().equals(path));
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    // Tras el commit (o enseguida, si el cambio se hizo sin transacción)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        String path = path(event);
+        if (path != null) {
+            log.debug("Evicting cached responses of {}", path);
+            evict(path);
+        }
+    }
+
+    // Ruta cacheada que muestra la entidad; null si ninguna
+    private static String path(EntityChangedEvent event) {
+        Class<?> type = event.type();
+        if (type == PetType.class)
+            return "/types";
+        if (type == Specialty.class)
+            return "/specialties";
+        if (type == Vet.class)
+            return "/vets";
+        if (type == Owner.class)
+            return "/owners/" + event.id();
+        return null;
+    }
+}
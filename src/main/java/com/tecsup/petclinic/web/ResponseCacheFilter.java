@@ -0,0 +1,195 @@
+package com.tecsup.petclinic.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Objects;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Serves GET /types, /specialties, /vets and /owners/{id} from {@link ResponseCache}.
+ * <p>
+ * A hit writes the stored bytes with their Content-Type, Content-Encoding, ETag and
+ * Content-Length, without reaching the controller: no query, no Jackson and no gzip.
+ * If-None-Match is checked against the stored ETag, as the controllers do.
+ * A miss goes through the chain while the body is copied, and is stored if it was a 200.
+ * <p>
+ * Runs before {@link ResponseCompressionFilter}, so what it stores for a gzip client is
+ * the compressed body and the gzip work is done once per representation.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+@ConditionalOnProperty(prefix = "petclinic.response-cache", name = "enabled", matchIfMissing = true)
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private final ResponseCache cache;
+    private final int maxEntrySize;
+
+    public ResponseCacheFilter(ResponseCache cache, ResponseCacheProperties properties) {
+        this.cache = cache;
+        this.maxEntrySize = (int) Math.min(properties.getMaximumSize().toBytes(), Integer.MAX_VALUE - 8);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!HttpMethod.GET.matches(request.getMethod()) || request.getQueryString() != null
+                || !ResponseCache.cacheable(path)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ResponseCache.Key key = new ResponseCache.Key(path, Objects.toString(request.getHeader(HttpHeaders.ACCEPT), ""),
+                ResponseCompressionFilter.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING)));
+        ResponseCache.Entry entry = cache.get(key);
+        if (entry != null) {
+            write(entry, request, response);
+            return;
+        }
+        // Dentro de una transacción ya abierta la respuesta puede mostrar cambios sin confirmar
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long generation = cache.generation();
+        CapturingResponse capturing = new CapturingResponse(response);
+        chain.doFilter(request, capturing);
+        entry = capturing.entry();
+        if (entry != null)
+            cache.put(key, entry, generation);
+    }
+
+    private void write(ResponseCache.Entry entry, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        // 304 (o 412 por If-Match) con el ETag guardado, igual que los controladores
+        if (entry.eTag() != null && new ServletWebRequest(request, response).checkNotModified(entry.eTag()))
+            return;
+        response.setContentType(entry.contentType());
+        if (entry.contentEncoding() != null)
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, entry.contentEncoding());
+        if (entry.eTag() != null)
+            response.setHeader(HttpHeaders.ETAG, entry.eTag());
+        for (String vary : entry.vary())
+            response.addHeader(HttpHeaders.VARY, vary);
+        response.setContentLength(entry.body().length);
+        response.getOutputStream().write(entry.body());
+    }
+
+    /**
+     * Passes the body through unchanged and keeps a copy, up to the size one entry may take.
+     */
+    private final class CapturingResponse extends HttpServletResponseWrapper {
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private boolean overflow;
+        private ServletOutputStream stream;
+        private PrintWriter writer;
+
+        CapturingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (stream == null)
+                stream = new CopyingOutputStream(super.getOutputStream());
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null)
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), Charset.forName(getCharacterEncoding())));
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null)
+                writer.flush();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            body.reset();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            body.reset();
+        }
+
+        // La respuesta tal como se envió, o null si no se debe guardar
+        ResponseCache.Entry entry() {
+            if (writer != null)
+                writer.flush();
+            if (overflow || getStatus() != HttpServletResponse.SC_OK || getContentType() == null)
+                return null;
+            return new ResponseCache.Entry(getContentType(), getHeader(HttpHeaders.CONTENT_ENCODING),
+                    getHeader(HttpHeaders.ETAG), List.copyOf(getHeaders(HttpHeaders.VARY)), body.toByteArray());
+        }
+
+        private final class CopyingOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream target;
+
+            CopyingOutputStream(ServletOutputStream target) {
+                this.target = target;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                target.write(b, off, len);
+                if (overflow)
+                    return;
+                if (body.size() + len > maxEntrySize) {
+                    overflow = true;
+                    body.reset();
+                } else
+                    body.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                target.flush();
+            }
+
+            @Override
+            public boolean isReady() {
+                return target.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                target.setWriteListener(writeListener);
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.tecsup.petclinic.web;
+
+import java.time.Duration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings for {@link ResponseCache} and {@link ResponseCacheFilter}, bound from {@code petclinic.response-cache.*}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "petclinic.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    // Suma de los cuerpos guardados; al superarla se descartan las entradas menos usadas
+    private DataSize maximumSize = DataSize.ofMegabytes(16);
+
+    // Caducidad de cada entrada, para cambios hechos fuera de los servicios (SQL, Data REST)
+    private Duration timeToLive = Duration.ofMinutes(10);
+}
@@ -0,0 +1,273 @@
+package com.tecsup.petclinic.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * gzip for clients that send {@code Accept-Encoding: gzip}, only above
+ * {@code petclinic.compression.min-response-size}.
+ * <p>
+ * Jackson writes without a Content-Length, so the container cannot tell the size in
+ * advance: the body is buffered up to the threshold. A response that ends below it is
+ * sent as is with its Content-Length; one that crosses it switches to gzip and the rest
+ * streams through the compressor (sync flush, so NDJSON rows still reach the client).
+ * <p>
+ * Not compressed: other content types, responses that already carry a Content-Encoding,
+ * and responses with a strong ETag (GET /owners/{id}, /vets/{id}, /visits/{id}), whose
+ * ETag is also used with If-Match and must keep naming the identity bytes.
+ */
+@Component
+@ConditionalOnProperty(prefix = "petclinic.compression", name = "enabled", matchIfMissing = true)
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+
+    private final int threshold;
+    private final List<MediaType> mimeTypes;
+
+    public ResponseCompressionFilter(CompressionProperties properties) {
+        this.threshold = (int) properties.getMinResponseSize().toBytes();
+        this.mimeTypes = properties.getMimeTypes().stream().map(MediaType::parseMediaType).toList();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            chain.doFilter(request, response);
+            return;
+        }
+        CompressingResponse wrapped = new CompressingResponse(response);
+        chain.doFilter(request, wrapped);
+        wrapped.finish();
+    }
+
+    // gzip (o *) en Accept-Encoding sin q=0; un q ilegible cuenta como no aceptado
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase(GZIP) && !name.equals("*"))
+                continue;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().replace(" ", "");
+                if (parameter.startsWith("q=") && !positive(parameter.substring(2)))
+                    return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean positive(String qValue) {
+        try {
+            return Double.parseDouble(qValue) > 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private boolean compressible(HttpServletResponse response) {
+        if (response.getHeader(HttpHeaders.CONTENT_ENCODING) != null)
+            return false;
+        String eTag = response.getHeader(HttpHeaders.ETAG);
+        if (eTag != null && !eTag.startsWith("W/"))
+            return false;
+        String contentType = response.getContentType();
+        if (contentType == null)
+            return false;
+        MediaType type = MediaType.parseMediaType(contentType);
+        for (MediaType mimeType : mimeTypes) {
+            if (mimeType.equalsTypeAndSubtype(type))
+                return true;
+        }
+        return false;
+    }
+
+    private final class CompressingResponse extends HttpServletResponseWrapper {
+
+        private ThresholdOutputStream stream;
+        private PrintWriter writer;
+
+        CompressingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        // La longitud solo se conoce al terminar (o deja de tener sentido al comprimir)
+        @Override
+        public void setContentLength(int len) {
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name))
+                super.setHeader(name, value);
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name))
+                super.addHeader(name, value);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (stream == null)
+                stream = new ThresholdOutputStream((HttpServletResponse) getResponse(), super.getOutputStream());
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null)
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), Charset.forName(getCharacterEncoding())));
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null)
+                writer.flush();
+            if (stream != null)
+                stream.flush();
+            else
+                super.flushBuffer();
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (stream != null)
+                stream.reset();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            if (stream != null)
+                stream.reset();
+        }
+
+        void finish() throws IOException {
+            if (writer != null)
+                writer.flush();
+            if (stream != null)
+                stream.finish();
+        }
+    }
+
+    /**
+     * Buffers until the threshold, then picks gzip or the identity encoding once.
+     */
+    private final class ThresholdOutputStream extends ServletOutputStream {
+
+        private final HttpServletResponse response;
+        private final ServletOutputStream out;
+        private ByteArrayOutputStream buffer;
+        private OutputStream target;
+        private GZIPOutputStream gzip;
+
+        ThresholdOutputStream(HttpServletResponse response, ServletOutputStream out) {
+            this.response = response;
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (target == null) {
+                // Sin posibilidad de comprimir no hace falta retener nada
+                if (buffer == null && !compressible(response))
+                    start(false, -1);
+                else {
+                    if (buffer == null)
+                        buffer = new ByteArrayOutputStream(threshold);
+                    if (buffer.size() + len < threshold) {
+                        buffer.write(b, off, len);
+                        return;
+                    }
+                    start(true, -1);
+                }
+            }
+            target.write(b, off, len);
+        }
+
+        // Hasta decidir no se vacía nada: el umbral solo se puede evaluar con el cuerpo retenido
+        @Override
+        public void flush() throws IOException {
+            if (target != null)
+                target.flush();
+        }
+
+        void reset() {
+            if (target == null && buffer != null)
+                buffer.reset();
+        }
+
+        void finish() throws IOException {
+            if (target == null)
+                start(false, buffer == null ? 0 : buffer.size());
+            if (gzip != null)
+                gzip.finish();
+            target.flush();
+        }
+
+        private void start(boolean compress, long length) throws IOException {
+            // Con cuerpo retenido la respuesta era comprimible: la representación depende de Accept-Encoding
+            if (buffer != null)
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (compress) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+                gzip = new GZIPOutputStream(out, 8192, true);
+                target = gzip;
+            } else {
+                if (length >= 0 && !response.isCommitted())
+                    response.setContentLengthLong(length);
+                target = out;
+            }
+            if (buffer != null) {
+                buffer.writeTo(target);
+                buffer = null;
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return out.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            out.setWriteListener(writeListener);
+        }
+    }
+}
@@ -9,6 +9,7 @@
 -- ===============================================
 -- DROP TABLES (Orden inverso por dependencias)
 -- ===============================================
+DROP TABLE IF EXISTS visit_daily_stats;
 DROP TABLE IF EXISTS visits;
 DROP TABLE IF EXISTS pets;
 DROP TABLE IF EXISTS vet_specialties;
@@ -17,17 +18,38 @@ DROP TABLE IF EXISTS types;
 DROP TABLE IF EXISTS specialties;
 DROP TABLE IF EXISTS vets;
 
+DROP SEQUENCE IF EXISTS visits_seq;
+DROP SEQUENCE IF EXISTS pets_seq;
+DROP SEQUENCE IF EXISTS owners_seq;
+DROP SEQUENCE IF EXISTS types_seq;
+DROP SEQUENCE IF EXISTS specialties_seq;
+DROP SEQUENCE IF EXISTS vets_seq;
+
+-- ===============================================
+-- SEQUENCES (Generadores de ID)
+-- Description: Hibernate reserves ids in blocks of 50 (pooled optimizer),
+-- which keeps JDBC insert batching enabled. INCREMENT BY must match the
+-- allocationSize of each entity; START WITH is above the sample data ids.
+-- ===============================================
+CREATE SEQUENCE IF NOT EXISTS vets_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS specialties_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS types_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS owners_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS pets_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS visits_seq START WITH 100 INCREMENT BY 50;
+
 -- ===============================================
 -- TABLE: vets (Veterinarios)
 -- Description: Stores veterinarian information
 -- ===============================================
 CREATE TABLE IF NOT EXISTS vets (
-  id              INT AUTO_INCREMENT,
+  id              INT NOT NULL,
   first_name      VARCHAR(30),
   last_name       VARCHAR(30),
   email           VARCHAR(100),
   phone           VARCHAR(20),
   active          BOOLEAN DEFAULT TRUE,
+  version         INT NOT NULL DEFAULT 0,
   PRIMARY KEY (id)
 );
 
@@ -38,7 +60,7 @@ CREATE INDEX idx_vets_last_name ON vets(last_name);
 -- Description: Stores veterinary specialties
 -- ===============================================
 CREATE TABLE IF NOT EXISTS specialties (
-  id            INT AUTO_INCREMENT,
+  id            INT NOT NULL,
   name          VARCHAR(80),
   office        VARCHAR(40),
   h_open        INT,
@@ -73,7 +95,7 @@ CREATE TABLE IF NOT EXISTS vet_specialties (
 -- Description: Stores pet type categories
 -- ===============================================
 CREATE TABLE IF NOT EXISTS types (
-  id                  INT AUTO_INCREMENT,
+  id                  INT NOT NULL,
   name                VARCHAR(80) NOT NULL,
   description         VARCHAR(100),
   active              BOOLEAN DEFAULT TRUE,
@@ -90,12 +112,13 @@ CREATE INDEX idx_types_name ON types(name);
 -- Description: Stores pet owner information
 -- ===============================================
 CREATE TABLE IF NOT EXISTS owners (
-  id            INT AUTO_INCREMENT,
+  id            INT NOT NULL,
   first_name    VARCHAR(30),
   last_name     VARCHAR(30),
   address       VARCHAR(255),
   city          VARCHAR(80),
   telephone     VARCHAR(20),
+  version       INT NOT NULL DEFAULT 0,
   PRIMARY KEY (id)
 );
 
@@ -106,7 +129,7 @@ CREATE INDEX idx_owners_last_name ON owners(last_name);
 -- Description: Stores pet information
 -- ===============================================
 CREATE TABLE IF NOT EXISTS pets (
-  id            INT AUTO_INCREMENT,
+  id            INT NOT NULL,
   name          VARCHAR(30) NOT NULL,
   birth_date    DATE,
   type_id       INT NOT NULL,
@@ -128,12 +151,13 @@ CREATE INDEX idx_pets_name ON pets(name);
 -- Description: Stores pet visit records
 -- ===============================================
 CREATE TABLE IF NOT EXISTS visits (
-  id              INT AUTO_INCREMENT,
+  id              INT NOT NULL,
   pet_id          INT NOT NULL,
   vet_id          INT,
   visit_date      DATE NOT NULL,
   description     VARCHAR(255),
   cost            DECIMAL(10,2),
+  version         INT NOT NULL DEFAULT 0,
   PRIMARY KEY (id),
   FOREIGN KEY (pet_id) REFERENCES pets(id) 
     ON DELETE CASCADE 
@@ -147,6 +171,23 @@ CREATE INDEX idx_visits_pet_id ON visits(pet_id);
 CREATE INDEX idx_visits_vet_id ON visits(vet_id);
 CREATE INDEX idx_visits_date ON visits(visit_date);
 
+-- ===============================================
+-- TABLE: visit_daily_stats (Resumen diario de visitas)
+-- Description: Rollup per date x vet x pet type, kept up to date by
+-- VisitServiceImpl and rebuilt with POST /visits/stats/rebuild.
+-- vet_id 0 groups the visits without vet.
+-- ===============================================
+CREATE TABLE IF NOT EXISTS visit_daily_stats (
+  visit_date      DATE NOT NULL,
+  vet_id          INT NOT NULL,
+  type_id         INT NOT NULL,
+  visits          BIGINT NOT NULL,
+  total_cost      DECIMAL(14,2) NOT NULL,
+  min_cost        DECIMAL(10,2),
+  max_cost        DECIMAL(10,2),
+  PRIMARY KEY (visit_date, vet_id, type_id)
+);
+
 -- ===============================================
 -- END OF SCHEMA CREATION
 -- ===============================================
\ No newline at end of file
@@ -2,22 +2,42 @@ package com.tecsup.petclinic.services;
 
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tecsup.petclinic.dtos.OwnerDTO;
 import com.tecsup.petclinic.entities.Owner;
 import com.tecsup.petclinic.services.OwnerService;
+import com.tecsup.petclinic.sql.ServerTimingFilter;
+import com.tecsup.petclinic.sql.SqlTimingProperties;
+import com.tecsup.petclinic.util.MaxSqlStatements;
+import com.tecsup.petclinic.util.SqlStatementCounter;
+import com.tecsup.petclinic.web.BinaryFormatsConfig;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
 
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+import java.time.Duration;
+
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@ExtendWith(SqlStatementCounter.class)
 @Slf4j
 public class OwnerControllerTest {
 
@@ -30,10 +50,20 @@ public class OwnerControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private SqlTimingProperties sqlTimingProperties;
+
     /**
      * Test para obtener todos los propietarios
      */
     @Test
+    @MaxSqlStatements(1)
     public void testGetAllOwners() throws Exception {
         log.info("✅ Ejecutando test: obtener todos los propietarios");
 
@@ -47,6 +77,7 @@ public class OwnerControllerTest {
      * Test para crear un nuevo propietario
      */
     @Test
+    @MaxSqlStatements(1)
     public void testCreateOwner() throws Exception {
         log.info("✅ Ejecutando test: crear un nuevo propietario");
 
@@ -67,6 +98,7 @@ public class OwnerControllerTest {
      * Test para obtener un propietario por ID
      */
     @Test
+    @MaxSqlStatements(2)
     public void testGetOwnerById() throws Exception {
         log.info("✅ Ejecutando test: obtener propietario por ID");
 
@@ -80,10 +112,38 @@ public class OwnerControllerTest {
                 .andExpect(jsonPath("$.city", is("Arequipa")));
     }
 
+    /**
+     * Test para obtener un propietario en Smile y en CBOR según Accept (JSON por defecto)
+     */
+    @Test
+    @MaxSqlStatements(4)
+    public void testGetOwnerBinaryFormats() throws Exception {
+        log.info("✅ Ejecutando test: propietario en Smile y CBOR");
+
+        Owner owner = ownerService.create(new Owner("Ana", "Rojas", "Av. Arequipa 321", "Lima", "945678123"));
+
+        byte[] smile = mockMvc.perform(get("/owners/" + owner.getId()).accept(BinaryFormatsConfig.SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BinaryFormatsConfig.SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("Ana", smileConverter.getObjectMapper().readValue(smile, OwnerDTO.class).firstName());
+
+        byte[] cbor = mockMvc.perform(get("/owners/" + owner.getId()).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(owner.getId(), cborConverter.getObjectMapper().readValue(cbor, OwnerDTO.class).id());
+
+        mockMvc.perform(get("/owners/" + owner.getId()).accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
     /**
      * Test para actualizar un propietario
      */
     @Test
+    @MaxSqlStatements(3)
     public void testUpdateOwner() throws Exception {
         log.info("✅ Ejecutando test: actualizar propietario");
 
@@ -101,31 +161,282 @@ public class OwnerControllerTest {
                 .andExpect(jsonPath("$.city", is("Lima")));
     }
 
+    /**
+     * Test para comprobar que el id y la versión del cuerpo no se aplican al actualizar
+     */
+    @Test
+    @MaxSqlStatements(4)
+    public void testUpdateOwnerIgnoresBodyIdAndVersion() throws Exception {
+        log.info("✅ Ejecutando test: actualizar propietario ignorando id y versión del cuerpo");
+
+        Owner owner = ownerService.create(new Owner("Rosa", "Quispe", "Av. Sol 12", "Cusco", "934567890"));
+        OwnerDTO changes = new OwnerDTO(null, "Rosa", "Quispe", "Av. Sol 12", "Puno", "934567890", 99);
+
+        mockMvc.perform(put("/owners/" + owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(changes)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(owner.getId().intValue())))
+                .andExpect(jsonPath("$.city", is("Puno")))
+                .andExpect(jsonPath("$.version", is(owner.getVersion() + 1)));
+    }
+
     /**
      * Test para eliminar un propietario
      */
     @Test
-    public void testDeleteOwner() throws Exception {
+    @MaxSqlStatements(7)
+    public void testDeleteOwner() throws Throwable {
         log.info("✅ Ejecutando test: eliminar propietario");
 
         Owner owner = ownerService.create(new Owner("Carmen", "Ruiz", "Av. Brasil 321", "Trujillo", "934567890"));
 
-        mockMvc.perform(delete("/owners/" + owner.getId()))
-                .andExpect(status().isNoContent());
+        // El DELETE y antes la lectura de los grupos de visit_daily_stats que borra en cascada, sin leer la fila
+        SqlStatementCounter.assertAtMost(2, () ->
+                mockMvc.perform(delete("/owners/" + owner.getId()))
+                        .andExpect(status().isNoContent()));
 
         // Verificar que ya no existe
         mockMvc.perform(get("/owners/" + owner.getId()))
                 .andExpect(status().isNotFound());
+
+        mockMvc.perform(delete("/owners/" + owner.getId()))
+                .andExpect(status().isNotFound());
     }
 
     /**
      * Test para manejar propietario no encontrado
      */
     @Test
+    @MaxSqlStatements(1)
     public void testGetOwnerNotFound() throws Exception {
         log.info("✅ Ejecutando test: propietario no encontrado");
 
+        // Cuerpo RFC 7807 generado por ApiExceptionHandler
         mockMvc.perform(get("/owners/99999"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status", is(404)))
+                .andExpect(jsonPath("$.title", is("Not Found")))
+                .andExpect(jsonPath("$.detail", is("Propietario no encontrado con ID: 99999")))
+                .andExpect(jsonPath("$.instance", is("/owners/99999")));
+    }
+
+    /**
+     * Test para obtener el resumen de un propietario (mascotas y últimas visitas) en a lo sumo 3 consultas
+     */
+    @Test
+    @MaxSqlStatements(4)
+    public void testGetOwnerSummary() throws Throwable {
+        log.info("✅ Ejecutando test: resumen de propietario");
+
+        // Owner 6 tiene las mascotas 7 y 8, con 4 visitas cada una en los datos iniciales
+        // Propietario, mascotas y visitas: tres sentencias sin importar cuántas mascotas haya
+        SqlStatementCounter.assertAtMost(3, () ->
+                mockMvc.perform(get("/owners/6/summary").param("visits", "2"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.owner.id", is(6)))
+                        .andExpect(jsonPath("$.pets", hasSize(2)))
+                        .andExpect(jsonPath("$.pets[*].id", containsInAnyOrder(7, 8)))
+                        .andExpect(jsonPath("$.pets[0].visits", hasSize(2)))
+                        .andExpect(jsonPath("$.pets[1].visits", hasSize(2))));
+
+        mockMvc.perform(get("/owners/99999/summary"))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test para la cabecera Server-Timing con el número de sentencias y el tiempo de BD
+     */
+    @Test
+    @MaxSqlStatements(4)
+    public void testServerTimingHeader() throws Exception {
+        log.info("✅ Ejecutando test: cabecera Server-Timing");
+
+        mockMvc.perform(get("/owners/6/summary").param("visits", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ServerTimingFilter.HEADER,
+                        matchesPattern("db;dur=\\d+\\.\\d{3};desc=\"3 statements\"")));
+
+        mockMvc.perform(get("/owners/99999"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string(ServerTimingFilter.HEADER, containsString("desc=\"1 statements\"")));
+    }
+
+    /**
+     * Test para el log de sentencias lentas: SQL, parámetros y método de servicio llamador
+     */
+    @Test
+    @MaxSqlStatements(3)
+    public void testSlowQueryLog() throws Exception {
+        log.info("✅ Ejecutando test: log de sentencias lentas");
+
+        Logger slowLogger = (Logger) LoggerFactory.getLogger("petclinic.sql.slow");
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        slowLogger.addAppender(appender);
+
+        Duration threshold = sqlTimingProperties.getSlowThreshold();
+        // Umbral 0: todas las sentencias se consideran lentas
+        sqlTimingProperties.setSlowThreshold(Duration.ZERO);
+        try {
+            mockMvc.perform(get("/owners/6/summary").param("visits", "2"))
+                    .andExpect(status().isOk());
+        } finally {
+            sqlTimingProperties.setSlowThreshold(threshold);
+            slowLogger.detachAppender(appender);
+        }
+
+        assertEquals(3, appender.list.size());
+        String first = appender.list.get(0).getFormattedMessage();
+        log.info("Sentencia lenta: " + first);
+        // findSummary carga el propietario a través de findById
+        assertTrue(first.contains("caller=OwnerServiceImpl.findById"), first);
+        assertTrue(first.contains("from owners"), first);
+        assertTrue(first.contains("params=[[6]]"), first);
+        String pets = appender.list.get(1).getFormattedMessage();
+        assertTrue(pets.contains("caller=OwnerServiceImpl.findSummary"), pets);
+    }
+
+    /**
+     * Test para GET condicional: ETag por versión y 304 con If-None-Match, sin leer la fila completa
+     */
+    @Test
+    @MaxSqlStatements(4)
+    public void testConditionalGetOwner() throws Throwable {
+        log.info("✅ Ejecutando test: GET condicional de propietario");
+
+        Owner owner = ownerService.create(new Owner("Rosa", "Quispe", "Jr. Puno 12", "Lima", "945678901"));
+        String eTag = "\"" + owner.getVersion() + "\"";
+
+        mockMvc.perform(get("/owners/" + owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+        // Una sola consulta (la versión) y sin cuerpo
+        SqlStatementCounter.assertAtMost(1, () ->
+                mockMvc.perform(get("/owners/" + owner.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                        .andExpect(status().isNotModified())
+                        .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                        .andExpect(content().string("")));
+    }
+
+    /**
+     * Test para If-Match: una escritura con una versión antigua responde 412
+     */
+    @Test
+    @MaxSqlStatements(8)
+    public void testUpdateOwnerIfMatch() throws Exception {
+        log.info("✅ Ejecutando test: actualizar propietario con If-Match");
+
+        Owner owner = ownerService.create(new Owner("Raúl", "Mendoza", "Av. Sol 45", "Cusco", "956789012"));
+        String staleETag = "\"" + owner.getVersion() + "\"";
+
+        owner.setCity("Arequipa");
+        mockMvc.perform(put("/owners/" + owner.getId())
+                        .header(HttpHeaders.IF_MATCH, staleETag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(owner)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (owner.getVersion() + 1) + "\""));
+
+        // El cliente que aún tiene la versión anterior no puede pisar el cambio
+        owner.setCity("Tacna");
+        mockMvc.perform(put("/owners/" + owner.getId())
+                        .header(HttpHeaders.IF_MATCH, staleETag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(owner)))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(delete("/owners/" + owner.getId()).header(HttpHeaders.IF_MATCH, staleETag))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/owners/" + owner.getId()))
+                .andExpect(jsonPath("$.city", is("Arequipa")));
+    }
+
+    /**
+     * Test para PATCH: un único UPDATE con las columnas enviadas, 412 con una versión antigua
+     */
+    @Test
+    @MaxSqlStatements(7)
+    public void testPatchOwner() throws Throwable {
+        log.info("✅ Ejecutando test: actualización parcial de propietario");
+
+        Owner owner = ownerService.create(new Owner("Elena", "Vargas", "Calle Lima 8", "Piura", "967890123"));
+        String eTag = "\"" + owner.getVersion() + "\"";
+
+        // Sin SELECT previo: la versión va en el WHERE del UPDATE
+        SqlStatementCounter.assertAtMost(1, () ->
+                mockMvc.perform(patch("/owners/" + owner.getId())
+                                .header(HttpHeaders.IF_MATCH, eTag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"city\": \"Chiclayo\"}"))
+                        .andExpect(status().isNoContent()));
+
+        mockMvc.perform(get("/owners/" + owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (owner.getVersion() + 1) + "\""))
+                .andExpect(jsonPath("$.city", is("Chiclayo")))
+                .andExpect(jsonPath("$.firstName", is("Elena")))
+                .andExpect(jsonPath("$.telephone", is("967890123")));
+
+        mockMvc.perform(patch("/owners/" + owner.getId())
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"city\": \"Tumbes\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status", is(412)));
+
+        mockMvc.perform(patch("/owners/" + owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nickname\": \"Ele\"}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(patch("/owners/99999")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"city\": \"Ica\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Test para la caché de respuestas: bytes, ETag y 304 sin consultas; PUT la invalida
+     */
+    @Test
+    @MaxSqlStatements(6)
+    public void testGetOwnerFromResponseCache() throws Throwable {
+        log.info("✅ Ejecutando test: propietario servido desde la caché de respuestas");
+
+        Owner owner = ownerService.create(new Owner("Jorge", "Salas", "Av. Grau 77", "Ica", "978901234"));
+        String eTag = "\"" + owner.getVersion() + "\"";
+
+        byte[] body = mockMvc.perform(get("/owners/" + owner.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        SqlStatementCounter.assertAtMost(0, () -> {
+            mockMvc.perform(get("/owners/" + owner.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                    .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, body.length))
+                    .andExpect(content().bytes(body));
+            mockMvc.perform(get("/owners/" + owner.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        });
+
+        // El commit del servicio descarta la entrada: la siguiente lectura ve la nueva versión
+        owner.setCity("Nasca");
+        mockMvc.perform(put("/owners/" + owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(owner)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/owners/" + owner.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (owner.getVersion() + 1) + "\""))
+                .andExpect(jsonPath("$.city", is("Nasca")));
+    }
+}
@@ -0,0 +1,69 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.aot.PetClinicRuntimeHints;
+import com.tecsup.petclinic.dtos.OwnerDTO;
+import com.tecsup.petclinic.dtos.VisitStatsDTO;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test para las pistas de GraalVM native image de PetClinicRuntimeHints
+ */
+@Slf4j
+public class PetClinicRuntimeHintsTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new PetClinicRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    /**
+     * Test para los proxies JDK de datasource-proxy
+     */
+    @Test
+    public void testDataSourceProxyHints() {
+        log.info("✅ Ejecutando test: testDataSourceProxyHints");
+
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(ProxyJdbcObject.class, Connection.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(ProxyJdbcObject.class, PreparedStatement.class).test(hints));
+    }
+
+    /**
+     * Test para los constructores de "select new" y los cuerpos de PATCH
+     */
+    @Test
+    public void testReflectionHints() throws NoSuchMethodException {
+        log.info("✅ Ejecutando test: testReflectionHints");
+
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onConstructor(VisitStatsDTO.class.getConstructor(LocalDate.class, Long.class, Double.class))
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(OwnerDTO.class).withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+                .test(hints));
+    }
+
+    /**
+     * Test para la configuración de la caché de segundo nivel
+     */
+    @Test
+    public void testCacheConfigurationResource() {
+        log.info("✅ Ejecutando test: testCacheConfigurationResource");
+
+        assertTrue(RuntimeHintsPredicates.resource().forResource("caffeine.conf").test(hints));
+    }
+}
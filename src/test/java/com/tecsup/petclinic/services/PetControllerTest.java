@@ -0,0 +1,211 @@
+package com.tecsup.petclinic.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.util.MaxSqlStatements;
+import com.tecsup.petclinic.util.SqlStatementCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ExtendWith(SqlStatementCounter.class)
+@Slf4j
+public class PetControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Test para obtener la primera página de mascotas (JSON plano, sin HAL)
+     */
+    @Test
+    @MaxSqlStatements(2)
+    public void testGetPetsPage() throws Exception {
+        log.info("✅ Ejecutando test: obtener página de mascotas");
+
+        mockMvc.perform(get("/pets").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content", hasSize(5)))
+                .andExpect(jsonPath("$.content[0].id", is(1)))
+                .andExpect(jsonPath("$.content[0].name", is("Leo")))
+                .andExpect(jsonPath("$.content[0]._links").doesNotExist())
+                .andExpect(jsonPath("$.page.size", is(5)))
+                .andExpect(jsonPath("$.page.number", is(0)));
+    }
+
+    /**
+     * Test para filtrar mascotas por propietario, tipo y nombre
+     */
+    @Test
+    @MaxSqlStatements(2)
+    public void testGetPetsFiltered() throws Exception {
+        log.info("✅ Ejecutando test: filtrar mascotas");
+
+        mockMvc.perform(get("/pets").param("ownerId", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.page.totalElements", is(2)));
+
+        mockMvc.perform(get("/pets").param("name", "Lucky").param("typeId", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id", is(12)))
+                .andExpect(jsonPath("$.content[0].ownerId", is(10)));
+    }
+
+    /**
+     * Test para ordenar por una propiedad que no existe: 400 en lugar de 500
+     */
+    @Test
+    @MaxSqlStatements(2)
+    public void testGetPetsUnknownSort() throws Throwable {
+        log.info("✅ Ejecutando test: ordenar por propiedad inexistente");
+
+        // Se rechaza antes de consultar
+        SqlStatementCounter.assertAtMost(0, () ->
+                mockMvc.perform(get("/pets").param("sort", "foo"))
+                        .andExpect(status().isBadRequest())
+                        .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                        .andExpect(jsonPath("$.status", is(400)))
+                        .andExpect(jsonPath("$.detail", containsString("foo"))));
+
+        mockMvc.perform(get("/pets").param("sort", "name,desc").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)));
+    }
+
+    /**
+     * Test para verificar que el tamaño de página se limita al máximo permitido
+     */
+    @Test
+    @MaxSqlStatements(1)
+    public void testGetPetsPageSizeCapped() throws Exception {
+        log.info("✅ Ejecutando test: tamaño de página máximo");
+
+        mockMvc.perform(get("/pets").param("size", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.page.size", is(100)));
+    }
+
+    /**
+     * Test para crear, actualizar y eliminar una mascota
+     */
+    @Test
+    @MaxSqlStatements(7)
+    public void testCreateUpdateDeletePet() throws Throwable {
+        log.info("✅ Ejecutando test: crear, actualizar y eliminar mascota");
+
+        PetDTO pet = PetDTO.builder().name("Toby").typeId(2).ownerId(3).build();
+
+        String response = mockMvc.perform(post("/pets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(pet)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", notNullValue()))
+                .andExpect(jsonPath("$.name", is("Toby")))
+                .andReturn().getResponse().getContentAsString();
+
+        PetDTO created = objectMapper.readValue(response, PetDTO.class).toBuilder().name("Toby2").build();
+
+        mockMvc.perform(put("/pets/" + created.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(created)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Toby2")));
+
+        // El DELETE y antes la lectura de los grupos de visit_daily_stats que borra en cascada, sin leer la fila
+        SqlStatementCounter.assertAtMost(2, () ->
+                mockMvc.perform(delete("/pets/" + created.id()))
+                        .andExpect(status().isNoContent()));
+
+        mockMvc.perform(get("/pets/" + created.id()))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Test para actualizar parcialmente una mascota con un único UPDATE
+     */
+    @Test
+    @MaxSqlStatements(5)
+    public void testPatchPet() throws Throwable {
+        log.info("✅ Ejecutando test: actualización parcial de mascota");
+
+        PetDTO pet = PetDTO.builder().name("Kira").typeId(1).ownerId(4).build();
+        String response = mockMvc.perform(post("/pets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(pet)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        PetDTO created = objectMapper.readValue(response, PetDTO.class);
+
+        // Solo se escribe la fecha de nacimiento: el tipo y el propietario no se tocan
+        SqlStatementCounter.assertAtMost(1, () ->
+                mockMvc.perform(patch("/pets/" + created.id())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"birthDate\": \"2023-01-15\"}"))
+                        .andExpect(status().isNoContent()));
+
+        mockMvc.perform(get("/pets/" + created.id()))
+                .andExpect(jsonPath("$.birthDate", is("2023-01-15")))
+                .andExpect(jsonPath("$.name", is("Kira")))
+                .andExpect(jsonPath("$.typeId", is(1)))
+                .andExpect(jsonPath("$.ownerId", is(4)));
+
+        mockMvc.perform(patch("/pets/99999")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Nadie\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Test para PATCH con valores que rechaza la base de datos: 400 y la mascota sin cambios
+     */
+    @Test
+    @MaxSqlStatements(8)
+    public void testPatchPetConstraintViolation() throws Exception {
+        log.info("✅ Ejecutando test: actualización parcial de mascota con valores inválidos");
+
+        PetDTO pet = PetDTO.builder().name("Toby").typeId(2).ownerId(3).build();
+        String response = mockMvc.perform(post("/pets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(pet)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        PetDTO created = objectMapper.readValue(response, PetDTO.class);
+
+        // name es NOT NULL
+        mockMvc.perform(patch("/pets/" + created.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": null}"))
+                .andExpect(status().isBadRequest());
+
+        // Tipo inexistente (y null, que en el int de PetDTO llega como 0)
+        mockMvc.perform(patch("/pets/" + created.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"typeId\": 99999}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/pets/" + created.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"typeId\": null}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/pets/" + created.id()))
+                .andExpect(jsonPath("$.name", is("Toby")))
+                .andExpect(jsonPath("$.typeId", is(2)));
+    }
+}
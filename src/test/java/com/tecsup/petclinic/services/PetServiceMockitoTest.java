@@ -64,7 +64,7 @@ public class PetServiceMockitoTest {
 
         log.info("" + petExpected);
         log.info("" + pet);
-        assertEquals(petExpected.getName(), pet.getName());
+        assertEquals(petExpected.getName(), pet.name());
 
     }
 
@@ -147,10 +147,10 @@ public class PetServiceMockitoTest {
 
         log.info("Pet created : {}" , newPetDTOCreated);
 
-        assertNotNull(newPetDTOCreated.getId());
-        assertEquals(hopePetDTOCreated.getName(), newPetDTOCreated.getName());
-        assertEquals(hopePetDTOCreated.getOwnerId(), newPetDTOCreated.getOwnerId());
-        assertEquals(hopePetDTOCreated.getTypeId(), newPetDTOCreated.getTypeId());
+        assertNotNull(newPetDTOCreated.id());
+        assertEquals(hopePetDTOCreated.name(), newPetDTOCreated.name());
+        assertEquals(hopePetDTOCreated.ownerId(), newPetDTOCreated.ownerId());
+        assertEquals(hopePetDTOCreated.typeId(), newPetDTOCreated.typeId());
 
     }
 
@@ -183,11 +183,11 @@ public class PetServiceMockitoTest {
         // ------------ Update ---------------
 
         // Prepare data for update
-        newPetDTOCreate.setName(UP_PET_NAME);
-        newPetDTOCreate.setOwnerId(UP_OWNER_ID);
-        newPetDTOCreate.setTypeId(UP_TYPE_ID);
-
-        PetDTO newPetDTOUpdate = newPetDTOCreate;
+        PetDTO newPetDTOUpdate = newPetDTOCreate.toBuilder()
+                .name(UP_PET_NAME)
+                .ownerId(UP_OWNER_ID)
+                .typeId(UP_TYPE_ID)
+                .build();
         Pet newPetUpdate = this.petMapper.mapToEntity(newPetDTOUpdate);
 
         // Create
@@ -195,13 +195,13 @@ public class PetServiceMockitoTest {
                 .thenReturn(newPetUpdate);
 
         // Execute update
-        PetDTO petDTOUpdate = this.petService.update(newPetDTOCreate);
+        PetDTO petDTOUpdate = this.petService.update(newPetDTOUpdate);
         log.info("{}" + petDTOUpdate);
 
         //            EXPECTED           ACTUAL
-        assertEquals(UP_PET_NAME, petDTOUpdate.getName());
-        assertEquals(UP_OWNER_ID, petDTOUpdate.getTypeId());
-        assertEquals(UP_TYPE_ID, petDTOUpdate.getOwnerId());
+        assertEquals(UP_PET_NAME, petDTOUpdate.name());
+        assertEquals(UP_OWNER_ID, petDTOUpdate.typeId());
+        assertEquals(UP_TYPE_ID, petDTOUpdate.ownerId());
     }
 
     /**
@@ -225,12 +225,11 @@ public class PetServiceMockitoTest {
 
         // ------------ Delete ---------------
 
-        Mockito.doNothing().when(this.repository).delete(newPetCreate);
-        Mockito.when(this.repository.findById(newPetCreate.getId()))
-                .thenReturn(Optional.of(newPetCreate));
+        Mockito.when(this.repository.removeById(newPetCreate.getId()))
+                .thenReturn(1);
 
         try {
-            this.petService.delete(petDTOCreate.getId());
+            this.petService.delete(petDTOCreate.id());
         } catch (PetNotFoundException e) {
             fail(e.getMessage());
         }
@@ -241,7 +240,7 @@ public class PetServiceMockitoTest {
                 .thenReturn(Optional.ofNullable(null));
 
         try {
-            this.petService.findById(petDTOCreate.getId());
+            this.petService.findById(petDTOCreate.id());
             assertTrue(false);
         } catch (PetNotFoundException e) {
             assertTrue(true);
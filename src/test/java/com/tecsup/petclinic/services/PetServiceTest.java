@@ -16,6 +16,13 @@ import com.tecsup.petclinic.entities.Pet;
 import com.tecsup.petclinic.exceptions.PetNotFoundException;
 
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 @SpringBootTest
 @Slf4j
@@ -24,6 +31,9 @@ public class PetServiceTest {
     @Autowired
     private PetService petService ;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     public void testFindPetById() {
 
@@ -38,7 +48,7 @@ public class PetServiceTest {
         } catch (PetNotFoundException e) {
             fail(e.getMessage());
         }
-        assertEquals(NAME_EXPECTED, pet.getName());
+        assertEquals(NAME_EXPECTED, pet.name());
     }
 
     /**
@@ -84,6 +94,69 @@ public class PetServiceTest {
 
     }
 
+    /**
+     * Cada llamada a PetService genera un único evento de auditoría, sin las filas.
+     */
+    @Test
+    public void testFindPetByOwnerId_SingleAuditEvent() {
+
+        int OWNER_ID = 10;
+
+        Logger auditLogger = (Logger) LoggerFactory.getLogger("petclinic.audit");
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        auditLogger.addAppender(appender);
+
+        try {
+            this.petService.findByOwnerId(OWNER_ID);
+        } finally {
+            auditLogger.detachAppender(appender);
+        }
+
+        assertEquals(1, appender.list.size());
+        String event = appender.list.get(0).getFormattedMessage();
+        log.info("AUDIT EVENT :" + event);
+        assertTrue(event.startsWith("method=findByOwnerId args=[10] outcome=ok rows=2 durationUs="));
+        assertTrue(!event.contains("result="));
+    }
+
+    /**
+     * Cada llamada a servicio y repositorio queda registrada en el timer petclinic.method.
+     */
+    @Test
+    public void testFindPetByOwnerId_Metrics() {
+
+        int OWNER_ID = 10;
+
+        this.petService.findByOwnerId(OWNER_ID);
+
+        Timer service = meterRegistry.get("petclinic.method")
+                .tags("layer", "service", "class", "PetServiceImpl", "method", "findByOwnerId", "outcome", "success")
+                .timer();
+        Timer repository = meterRegistry.get("petclinic.method")
+                .tags("layer", "repository", "class", "PetRepository", "method", "findByOwnerId")
+                .timer();
+        assertTrue(service.count() >= 1);
+        assertTrue(repository.count() >= 1);
+        assertTrue(meterRegistry.get("petclinic.method.results")
+                .tags("class", "PetRepository", "method", "findByOwnerId")
+                .summary().totalAmount() >= 2);
+
+        // Los errores se cuentan aparte, con la excepción como etiqueta
+        try {
+            this.petService.findById(-1);
+            fail("PetNotFoundException expected");
+        } catch (PetNotFoundException e) {
+            assertTrue(meterRegistry.get("petclinic.method")
+                    .tags("class", "PetServiceImpl", "method", "findById", "outcome", "error", "exception", "PetNotFoundException")
+                    .timer().count() >= 1);
+        }
+
+        // Métricas del pool de conexiones y de Hibernate
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").gauge());
+        assertNotNull(meterRegistry.find("hibernate.sessions.open").functionCounter());
+    }
+
     /**
      *
      */
@@ -105,10 +178,10 @@ public class PetServiceTest {
 
         log.info("PET CREATED :" + newPetDTO.toString());
 
-        assertNotNull(newPetDTO.getId());
-        assertEquals(PET_NAME, newPetDTO.getName());
-        assertEquals(OWNER_ID, newPetDTO.getOwnerId());
-        assertEquals(TYPE_ID, newPetDTO.getTypeId());
+        assertNotNull(newPetDTO.id());
+        assertEquals(PET_NAME, newPetDTO.name());
+        assertEquals(OWNER_ID, newPetDTO.ownerId());
+        assertEquals(TYPE_ID, newPetDTO.typeId());
 
     }
 
@@ -142,18 +215,20 @@ public class PetServiceTest {
         // ------------ Update ---------------
 
         // Prepare data for update
-        petDTOCreated.setName(UP_PET_NAME);
-        petDTOCreated.setOwnerId(UP_OWNER_ID);
-        petDTOCreated.setTypeId(UP_TYPE_ID);
+        PetDTO petDTOChanged = petDTOCreated.toBuilder()
+                .name(UP_PET_NAME)
+                .ownerId(UP_OWNER_ID)
+                .typeId(UP_TYPE_ID)
+                .build();
 
         // Execute update
-        PetDTO upgradePetDTO = this.petService.update(petDTOCreated);
+        PetDTO upgradePetDTO = this.petService.update(petDTOChanged);
         log.info(">>>>" + upgradePetDTO);
 
         //            EXPECTED        ACTUAL
-        assertEquals(UP_PET_NAME, upgradePetDTO.getName());
-        assertEquals(UP_OWNER_ID, upgradePetDTO.getTypeId());
-        assertEquals(UP_TYPE_ID, upgradePetDTO.getOwnerId());
+        assertEquals(UP_PET_NAME, upgradePetDTO.name());
+        assertEquals(UP_OWNER_ID, upgradePetDTO.typeId());
+        assertEquals(UP_TYPE_ID, upgradePetDTO.ownerId());
     }
 
     /**
@@ -180,7 +255,7 @@ public class PetServiceTest {
         // ------------ Delete ---------------
 
         try {
-            this.petService.delete(newPetDTO.getId());
+            this.petService.delete(newPetDTO.id());
         } catch (PetNotFoundException e) {
             fail(e.getMessage());
         }
@@ -188,11 +263,27 @@ public class PetServiceTest {
         // ------------ Validation ---------------
 
         try {
-            this.petService.findById(newPetDTO.getId());
+            this.petService.findById(newPetDTO.id());
             assertTrue(false);
         } catch (PetNotFoundException e) {
             assertTrue(true);
         }
 
     }
+
+    /**
+     * Test para comprobar que las excepciones de "no encontrado" no capturan la traza
+     */
+    @Test
+    public void testNotFoundWithoutStackTrace() {
+
+        try {
+            this.petService.findById(-1);
+            fail("PetNotFoundException expected");
+        } catch (PetNotFoundException e) {
+            assertEquals(0, e.getStackTrace().length);
+            assertEquals("Record not found...!", e.getMessage());
+        }
+
+    }
 }
@@ -0,0 +1,128 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.entities.Vet;
+import com.tecsup.petclinic.web.CompressionProperties;
+import com.tecsup.petclinic.web.ResponseCache;
+import com.tecsup.petclinic.web.ResponseCacheFilter;
+import com.tecsup.petclinic.web.ResponseCacheProperties;
+import com.tecsup.petclinic.web.ResponseCompressionFilter;
+import jakarta.servlet.FilterChain;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Test para ResponseCacheFilter delante de ResponseCompressionFilter, como en la aplicación
+ */
+@Slf4j
+public class ResponseCacheFilterTest {
+
+    private final ResponseCacheProperties properties = new ResponseCacheProperties();
+    private final ResponseCache cache = new ResponseCache(properties);
+    private final ResponseCacheFilter cacheFilter = new ResponseCacheFilter(cache, properties);
+    private final ResponseCompressionFilter compressionFilter = new ResponseCompressionFilter(new CompressionProperties());
+
+    // Veces que la respuesta llegó a serializarse
+    private final AtomicInteger rendered = new AtomicInteger();
+
+    private final byte[] body = json(10_000);
+
+    /**
+     * Test para guardar cada representación una vez: la variante gzip se sirve ya comprimida
+     */
+    @Test
+    public void testStoresEachRepresentation() throws Exception {
+        log.info("✅ Ejecutando test: una entrada por representación");
+
+        MockHttpServletResponse first = perform("/vets", "gzip", null);
+        MockHttpServletResponse second = perform("/vets", "gzip", null);
+
+        assertEquals(1, rendered.get());
+        assertEquals("gzip", second.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, second.getHeader(HttpHeaders.VARY));
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, second.getContentType());
+        assertEquals(second.getContentAsByteArray().length, second.getContentLength());
+        assertArrayEquals(first.getContentAsByteArray(), second.getContentAsByteArray());
+        assertArrayEquals(body, gunzip(second.getContentAsByteArray()));
+
+        // Sin gzip es otra representación, que se guarda aparte
+        MockHttpServletResponse identity = perform("/vets", null, null);
+        perform("/vets", null, null);
+        assertEquals(2, rendered.get());
+        assertNull(identity.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(body, identity.getContentAsByteArray());
+
+        // Un Accept-Encoding mal formado cuenta como sin gzip
+        assertNull(perform("/vets", "gzip;q=x", null).getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(2, rendered.get());
+
+        // Rutas y peticiones fuera de la caché
+        perform("/visits", null, null);
+        perform("/visits", null, null);
+        assertEquals(4, rendered.get());
+    }
+
+    /**
+     * Test para la invalidación: tras el evento, y sin guardar lo leído mientras ocurría
+     */
+    @Test
+    public void testEviction() throws Exception {
+        log.info("✅ Ejecutando test: invalidación de la caché de respuestas");
+
+        perform("/vets", null, null);
+        cache.onEntityChanged(new EntityChangedEvent(Vet.class, 1L));
+        perform("/vets", null, null);
+        assertEquals(2, rendered.get());
+
+        // Un cambio confirmado mientras se serializaba: esa respuesta puede ser la anterior
+        cache.evict("/vets");
+        perform("/vets", null, () -> cache.evict("/vets"));
+        perform("/vets", null, null);
+        perform("/vets", null, null);
+        assertEquals(4, rendered.get());
+    }
+
+    private MockHttpServletResponse perform(String path, String acceptEncoding, Runnable duringRendering) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (acceptEncoding != null)
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain controller = (req, res) -> {
+            rendered.incrementAndGet();
+            if (duringRendering != null)
+                duringRendering.run();
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            for (int offset = 0; offset < body.length; offset += 700)
+                res.getOutputStream().write(body, offset, Math.min(700, body.length - offset));
+        };
+        cacheFilter.doFilter(request, response, (req, res) -> compressionFilter.doFilter(req, res, controller));
+        return response;
+    }
+
+    private static byte[] json(int length) {
+        byte[] body = new byte[length];
+        Arrays.fill(body, (byte) ' ');
+        body[0] = '[';
+        body[length - 1] = ']';
+        return body;
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.web.CompressionProperties;
+import com.tecsup.petclinic.web.ResponseCompressionFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Test para la compresión gzip de ResponseCompressionFilter (umbral de 2 KB por defecto)
+ */
+@Slf4j
+public class ResponseCompressionFilterTest {
+
+    private final ResponseCompressionFilter filter = new ResponseCompressionFilter(new CompressionProperties());
+
+    /**
+     * Test para comprimir una respuesta por encima del umbral
+     */
+    @Test
+    public void testCompressesAboveThreshold() throws Exception {
+        log.info("✅ Ejecutando test: gzip por encima del umbral");
+
+        byte[] body = json(10_000);
+        MockHttpServletResponse response = perform("gzip, deflate, br", MediaType.APPLICATION_JSON_VALUE, null, body);
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+        assertArrayEquals(body, gunzip(response.getContentAsByteArray()));
+    }
+
+    /**
+     * Test para enviar sin comprimir, con Content-Length, una respuesta por debajo del umbral
+     */
+    @Test
+    public void testIdentityBelowThreshold() throws Exception {
+        log.info("✅ Ejecutando test: sin gzip por debajo del umbral");
+
+        byte[] body = json(500);
+        MockHttpServletResponse response = perform("gzip", MediaType.APPLICATION_JSON_VALUE, null, body);
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(body.length, response.getContentLength());
+        assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    /**
+     * Test para no comprimir sin Accept-Encoding, con q=0, con ETag fuerte ni tipos no comprimibles
+     */
+    @Test
+    public void testNotCompressed() throws Exception {
+        log.info("✅ Ejecutando test: respuestas que no se comprimen");
+
+        byte[] body = json(10_000);
+        assertNull(perform(null, MediaType.APPLICATION_JSON_VALUE, null, body).getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNull(perform("gzip;q=0", MediaType.APPLICATION_JSON_VALUE, null, body).getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNull(perform("gzip", MediaType.APPLICATION_JSON_VALUE, "\"3\"", body).getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNull(perform("gzip", MediaType.IMAGE_PNG_VALUE, null, body).getHeader(HttpHeaders.CONTENT_ENCODING));
+
+        MockHttpServletResponse weak = perform("gzip", MediaType.APPLICATION_JSON_VALUE, "W/\"3\"", body);
+        assertEquals("gzip", weak.getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    /**
+     * Test para un q ilegible en Accept-Encoding: se responde sin comprimir, no con 500
+     */
+    @Test
+    public void testMalformedQValue() throws Exception {
+        log.info("✅ Ejecutando test: q ilegible en Accept-Encoding");
+
+        byte[] body = json(10_000);
+        for (String acceptEncoding : new String[] {"gzip;q=", "gzip;q=x", "gzip; q=1.0.0"}) {
+            MockHttpServletResponse response = perform(acceptEncoding, MediaType.APPLICATION_JSON_VALUE, null, body);
+            assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING), acceptEncoding);
+            assertArrayEquals(body, response.getContentAsByteArray());
+        }
+        assertEquals("gzip", perform("br;q=x, gzip", MediaType.APPLICATION_JSON_VALUE, null, body)
+                .getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    private MockHttpServletResponse perform(String acceptEncoding, String contentType, String eTag, byte[] body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/visits");
+        if (acceptEncoding != null)
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            res.setContentType(contentType);
+            if (eTag != null)
+                ((HttpServletResponse) res).setHeader(HttpHeaders.ETAG, eTag);
+            // En trozos, como escribe Jackson
+            for (int offset = 0; offset < body.length; offset += 700)
+                res.getOutputStream().write(body, offset, Math.min(700, body.length - offset));
+        };
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static byte[] json(int length) {
+        byte[] body = new byte[length];
+        Arrays.fill(body, (byte) ' ');
+        body[0] = '[';
+        body[length - 1] = ']';
+        return body;
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
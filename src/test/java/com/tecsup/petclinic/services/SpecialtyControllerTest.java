@@ -3,8 +3,11 @@ package com.tecsup.petclinic.services;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tecsup.petclinic.entities.Specialty;
 import com.tecsup.petclinic.services.SpecialtyService;
+import com.tecsup.petclinic.util.MaxSqlStatements;
+import com.tecsup.petclinic.util.SqlStatementCounter;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -17,6 +20,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@ExtendWith(SqlStatementCounter.class)
 @Slf4j
 public class SpecialtyControllerTest {
 
@@ -33,6 +37,7 @@ public class SpecialtyControllerTest {
      * Test para obtener todas las especialidades
      */
     @Test
+    @MaxSqlStatements(1)
     public void testGetAllSpecialties() throws Exception {
         log.info("✅ Ejecutando test: obtener todas las especialidades");
 
@@ -46,6 +51,7 @@ public class SpecialtyControllerTest {
      * Test para crear una nueva especialidad
      */
     @Test
+    @MaxSqlStatements(1)
     public void testCreateSpecialty() throws Exception {
         log.info("✅ Ejecutando test: crear una nueva especialidad");
 
@@ -64,6 +70,7 @@ public class SpecialtyControllerTest {
      * Test para obtener una especialidad por ID
      */
     @Test
+    @MaxSqlStatements(2)
     public void testGetSpecialtyById() throws Exception {
         log.info("✅ Ejecutando test: obtener especialidad por ID");
 
@@ -79,6 +86,7 @@ public class SpecialtyControllerTest {
      * Test para actualizar una especialidad
      */
     @Test
+    @MaxSqlStatements(2)
     public void testUpdateSpecialty() throws Exception {
         log.info("✅ Ejecutando test: actualizar especialidad");
 
@@ -98,13 +106,16 @@ public class SpecialtyControllerTest {
      * Test para eliminar una especialidad
      */
     @Test
-    public void testDeleteSpecialty() throws Exception {
+    @MaxSqlStatements(3)
+    public void testDeleteSpecialty() throws Throwable {
         log.info("✅ Ejecutando test: eliminar especialidad");
 
         Specialty specialty = specialtyService.create(new Specialty("Odontología"));
 
-        mockMvc.perform(delete("/specialties/" + specialty.getId()))
-                .andExpect(status().isNoContent());
+        // Un único DELETE, sin leer antes la fila
+        SqlStatementCounter.assertAtMost(1, () ->
+                mockMvc.perform(delete("/specialties/" + specialty.getId()))
+                        .andExpect(status().isNoContent()));
 
         // Verificar que ya no existe
         mockMvc.perform(get("/specialties/" + specialty.getId()))
@@ -115,10 +126,56 @@ public class SpecialtyControllerTest {
      * Test para manejar especialidad no encontrada
      */
     @Test
+    @MaxSqlStatements(1)
     public void testGetSpecialtyNotFound() throws Exception {
         log.info("✅ Ejecutando test: especialidad no encontrada");
 
         mockMvc.perform(get("/specialties/99999"))
                 .andExpect(status().isNotFound());
     }
+
+    /**
+     * Test para verificar las estadísticas de la caché de segundo nivel
+     */
+    @Test
+    @MaxSqlStatements(1)
+    public void testCacheStatistics() throws Exception {
+        log.info("✅ Ejecutando test: estadísticas de caché");
+
+        mockMvc.perform(get("/specialties")).andExpect(status().isOk());
+        // La segunda lectura va al servicio: por HTTP la serviría la caché de respuestas sin consultar
+        specialtyService.findAll();
+
+        mockMvc.perform(get("/cache/statistics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.regions.specialties.puts", greaterThan(0)))
+                .andExpect(jsonPath("$.queries.hits", greaterThan(0)));
+    }
+
+    /**
+     * Test para actualizar parcialmente una especialidad con un único UPDATE
+     */
+    @Test
+    @MaxSqlStatements(5)
+    public void testPatchSpecialty() throws Throwable {
+        log.info("✅ Ejecutando test: actualización parcial de especialidad");
+
+        Specialty specialty = specialtyService.create(new Specialty("Oftalmología"));
+
+        SqlStatementCounter.assertAtMost(1, () ->
+                mockMvc.perform(patch("/specialties/" + specialty.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"name\": \"Oftalmología veterinaria\"}"))
+                        .andExpect(status().isNoContent()));
+
+        mockMvc.perform(get("/specialties/" + specialty.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Oftalmología veterinaria")))
+                .andExpect(jsonPath("$.id", is(specialty.getId().intValue())));
+
+        mockMvc.perform(patch("/specialties/99999")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Oftalmología veterinaria\"}"))
+                .andExpect(status().isNotFound());
+    }
 }
\ No newline at end of file
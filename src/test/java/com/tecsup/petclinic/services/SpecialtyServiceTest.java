@@ -1,12 +1,113 @@
 package com.tecsup.petclinic.services;
 
+import com.tecsup.petclinic.dtos.SpecialtyDTO;
+import com.tecsup.petclinic.entities.Specialty;
+import com.tecsup.petclinic.entities.Vet;
+import com.tecsup.petclinic.entities.VetSpecialty;
+import com.tecsup.petclinic.exceptions.SpecialtyNotFoundException;
+import com.tecsup.petclinic.exceptions.VetNotFoundException;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 @SpringBootTest
 @Slf4j
 public class SpecialtyServiceTest {
 
+	@Autowired
+	private SpecialtyService specialtyService;
+
+	@Autowired
+	private VetService vetService;
+
+	@Autowired
+	private VetSpecialtyService vetSpecialtyService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	/**
+	 * La segunda búsqueda por ID se resuelve en la caché de segundo nivel, sin SQL.
+	 */
+	@Test
+	public void testFindByIdUsesSecondLevelCache() throws SpecialtyNotFoundException {
+
+		specialtyService.findById(1L);
+		statistics.clear();
+
+		Specialty specialty = specialtyService.findById(1L);
+
+		log.info("" + specialty);
+		assertEquals(0, statistics.getPrepareStatementCount());
+		assertEquals(1, statistics.getSecondLevelCacheHitCount());
+	}
+
+	/**
+	 * La segunda llamada a findAll se resuelve en la caché de consultas, sin SQL.
+	 */
+	@Test
+	public void testFindAllUsesQueryCache() {
+
+		specialtyService.findAll();
+		statistics.clear();
+
+		List<SpecialtyDTO> specialties = specialtyService.findAll();
+
+		assertTrue(specialties.size() > 0);
+		assertEquals(0, statistics.getPrepareStatementCount());
+		assertEquals(1, statistics.getQueryCacheHitCount());
+	}
+
+	/**
+	 * Una actualización reemplaza la entrada cacheada y findAll refleja el cambio.
+	 */
+	@Test
+	public void testUpdateRefreshesCache() throws SpecialtyNotFoundException {
+
+		Specialty specialty = specialtyService.create(new Specialty("cardiology"));
+		specialtyService.findById(specialty.getId());
+		specialtyService.findAll();
+
+		specialty.setName("cardiology-2");
+		specialtyService.update(specialty);
+
+		assertEquals("cardiology-2", specialtyService.findById(specialty.getId()).getName());
+		assertTrue(specialtyService.findAll().stream().anyMatch(s -> "cardiology-2".equals(s.name())));
+	}
+
+	/**
+	 * Borrar un veterinario elimina en cascada sus especialidades (en la base de datos);
+	 * la caché no debe seguir devolviéndolas.
+	 */
+	@Test
+	public void testDeleteVetEvictsCascadedVetSpecialties() throws VetNotFoundException {
+
+		Vet vet = vetService.create(new Vet("Ana", "Cache"));
+		vetSpecialtyService.create(new VetSpecialty(vet.getId(), 1L));
+		assertEquals(1, vetSpecialtyService.findByVetId(vet.getId()).size());
+
+		vetService.delete(vet.getId());
+
+		assertTrue(vetSpecialtyService.findByVetId(vet.getId()).isEmpty());
+	}
+
 	//@Autowired
    //	private OwnerService ownerService;
 
@@ -3,8 +3,12 @@ package com.tecsup.petclinic.services;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tecsup.petclinic.entities.PetType;
 import com.tecsup.petclinic.services.PetTypeService;
+import com.tecsup.petclinic.util.MaxSqlStatements;
+import com.tecsup.petclinic.util.SqlStatementCounter;
+import com.tecsup.petclinic.web.BinaryFormatsConfig;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -17,6 +21,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@ExtendWith(SqlStatementCounter.class)
 @Slf4j
 public class TypesControllerTest {
 
@@ -33,6 +38,7 @@ public class TypesControllerTest {
      * Test para obtener todos los tipos de mascotas
      */
     @Test
+    @MaxSqlStatements(1)
     public void testGetAllTypes() throws Exception {
         log.info("✅ Ejecutando test: obtener todos los tipos de mascotas");
 
@@ -46,6 +52,7 @@ public class TypesControllerTest {
      * Test para crear un nuevo tipo de mascota
      */
     @Test
+    @MaxSqlStatements(1)
     public void testCreateType() throws Exception {
         log.info("✅ Ejecutando test: crear un nuevo tipo de mascota");
 
@@ -64,6 +71,7 @@ public class TypesControllerTest {
      * Test para obtener un tipo de mascota por ID
      */
     @Test
+    @MaxSqlStatements(1)
     public void testGetTypeById() throws Exception {
         log.info("✅ Ejecutando test: obtener tipo de mascota por ID");
 
@@ -79,6 +87,7 @@ public class TypesControllerTest {
      * Test para actualizar un tipo de mascota
      */
     @Test
+    @MaxSqlStatements(3)
     public void testUpdateType() throws Exception {
         log.info("✅ Ejecutando test: actualizar tipo de mascota");
 
@@ -98,27 +107,88 @@ public class TypesControllerTest {
      * Test para eliminar un tipo de mascota
      */
     @Test
-    public void testDeleteType() throws Exception {
+    @MaxSqlStatements(3)
+    public void testDeleteType() throws Throwable {
         log.info("✅ Ejecutando test: eliminar tipo de mascota");
 
         PetType petType = petTypeService.create(new PetType("Reptil"));
 
-        mockMvc.perform(delete("/types/" + petType.getId()))
-                .andExpect(status().isNoContent());
+        // Un único DELETE, sin leer antes la fila
+        SqlStatementCounter.assertAtMost(1, () ->
+                mockMvc.perform(delete("/types/" + petType.getId()))
+                        .andExpect(status().isNoContent()));
 
         // Verificar que ya no existe
         mockMvc.perform(get("/types/" + petType.getId()))
                 .andExpect(status().isNotFound());
     }
 
+    /**
+     * Test para GET /types desde la caché de respuestas: sin consultas, por representación e invalidado al crear
+     */
+    @Test
+    @MaxSqlStatements(4)
+    public void testGetAllTypesFromResponseCache() throws Throwable {
+        log.info("✅ Ejecutando test: tipos de mascota desde la caché de respuestas");
+
+        byte[] body = mockMvc.perform(get("/types"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        SqlStatementCounter.assertAtMost(0, () ->
+                mockMvc.perform(get("/types"))
+                        .andExpect(status().isOk())
+                        .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                        .andExpect(content().bytes(body)));
+
+        // Otro Accept, otra entrada
+        mockMvc.perform(get("/types").accept(BinaryFormatsConfig.SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BinaryFormatsConfig.SMILE));
+
+        petTypeService.create(new PetType("Hurón"));
+
+        mockMvc.perform(get("/types"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", hasItem("Hurón")));
+    }
+
     /**
      * Test para manejar tipo de mascota no encontrado
      */
     @Test
+    @MaxSqlStatements(1)
     public void testGetTypeNotFound() throws Exception {
         log.info("✅ Ejecutando test: tipo de mascota no encontrado");
 
         mockMvc.perform(get("/types/99999"))
                 .andExpect(status().isNotFound());
     }
+
+    /**
+     * Test para actualizar parcialmente un tipo de mascota con un único UPDATE
+     */
+    @Test
+    @MaxSqlStatements(5)
+    public void testPatchType() throws Throwable {
+        log.info("✅ Ejecutando test: actualización parcial de tipo de mascota");
+
+        PetType petType = petTypeService.create(new PetType("Roedor"));
+
+        SqlStatementCounter.assertAtMost(1, () ->
+                mockMvc.perform(patch("/types/" + petType.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"name\": \"Roedor pequeño\"}"))
+                        .andExpect(status().isNoContent()));
+
+        mockMvc.perform(get("/types/" + petType.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Roedor pequeño")))
+                .andExpect(jsonPath("$.id", is(petType.getId().intValue())));
+
+        mockMvc.perform(patch("/types/99999")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Roedor pequeño\"}"))
+                .andExpect(status().isNotFound());
+    }
 }
\ No newline at end of file
@@ -3,11 +3,15 @@ package com.tecsup.petclinic.services;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tecsup.petclinic.entities.Vet;
 import com.tecsup.petclinic.services.VetService;
+import com.tecsup.petclinic.util.MaxSqlStatements;
+import com.tecsup.petclinic.util.SqlStatementCounter;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -17,6 +21,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@ExtendWith(SqlStatementCounter.class)
 @Slf4j
 public class VetControllerTest {
 
@@ -33,6 +38,7 @@ public class VetControllerTest {
      * Test para obtener todos los veterinarios
      */
     @Test
+    @MaxSqlStatements(1)
     public void testGetAllVets() throws Exception {
         log.info("✅ Ejecutando test: obtener todos los veterinarios");
 
@@ -46,6 +52,7 @@ public class VetControllerTest {
      * Test para crear un nuevo veterinario
      */
     @Test
+    @MaxSqlStatements(1)
     public void testCreateVet() throws Exception {
         log.info("✅ Ejecutando test: crear un nuevo veterinario");
 
@@ -65,6 +72,7 @@ public class VetControllerTest {
      * Test para obtener un veterinario por ID
      */
     @Test
+    @MaxSqlStatements(1)
     public void testGetVetById() throws Exception {
         log.info("✅ Ejecutando test: obtener veterinario por ID");
 
@@ -81,6 +89,7 @@ public class VetControllerTest {
      * Test para actualizar un veterinario
      */
     @Test
+    @MaxSqlStatements(3)
     public void testUpdateVet() throws Exception {
         log.info("✅ Ejecutando test: actualizar veterinario");
 
@@ -102,13 +111,16 @@ public class VetControllerTest {
      * Test para eliminar un veterinario
      */
     @Test
-    public void testDeleteVet() throws Exception {
+    @MaxSqlStatements(4)
+    public void testDeleteVet() throws Throwable {
         log.info("✅ Ejecutando test: eliminar veterinario");
 
         Vet vet = vetService.create(new Vet("María", "González"));
 
-        mockMvc.perform(delete("/vets/" + vet.getId()))
-                .andExpect(status().isNoContent());
+        // El DELETE y antes la lectura de los grupos de visit_daily_stats que pasan a NO_VET, sin leer la fila
+        SqlStatementCounter.assertAtMost(2, () ->
+                mockMvc.perform(delete("/vets/" + vet.getId()))
+                        .andExpect(status().isNoContent()));
 
         // Verificar que ya no existe
         mockMvc.perform(get("/vets/" + vet.getId()))
@@ -119,10 +131,61 @@ public class VetControllerTest {
      * Test para manejar veterinario no encontrado
      */
     @Test
+    @MaxSqlStatements(1)
     public void testGetVetNotFound() throws Exception {
         log.info("✅ Ejecutando test: veterinario no encontrado");
 
         mockMvc.perform(get("/vets/99999"))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test para GET condicional y If-Match en veterinarios
+     */
+    @Test
+    @MaxSqlStatements(3)
+    public void testConditionalVet() throws Exception {
+        log.info("✅ Ejecutando test: peticiones condicionales de veterinario");
+
+        Vet vet = vetService.create(new Vet("Dra. Elena", "Vargas"));
+        String eTag = "\"" + vet.getVersion() + "\"";
+
+        mockMvc.perform(get("/vets/" + vet.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        vet.setLastName("Vargas Actualizado");
+        mockMvc.perform(put("/vets/" + vet.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + (vet.getVersion() + 1) + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(vet)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    /**
+     * Test para actualizar parcialmente un veterinario con un único UPDATE
+     */
+    @Test
+    @MaxSqlStatements(5)
+    public void testPatchVet() throws Throwable {
+        log.info("✅ Ejecutando test: actualización parcial de veterinario");
+
+        Vet vet = vetService.create(new Vet("Jorge", "Salas"));
+
+        SqlStatementCounter.assertAtMost(1, () ->
+                mockMvc.perform(patch("/vets/" + vet.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"lastName\": \"Salas Ríos\"}"))
+                        .andExpect(status().isNoContent()));
+
+        mockMvc.perform(get("/vets/" + vet.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastName", is("Salas Ríos")))
+                .andExpect(jsonPath("$.firstName", is("Jorge")));
+
+        mockMvc.perform(patch("/vets/99999")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"lastName\": \"Salas Ríos\"}"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -7,20 +7,26 @@ import com.tecsup.petclinic.entities.VetSpecialty;
 import com.tecsup.petclinic.services.SpecialtyService;
 import com.tecsup.petclinic.services.VetService;
 import com.tecsup.petclinic.services.VetSpecialtyService;
+import com.tecsup.petclinic.util.MaxSqlStatements;
+import com.tecsup.petclinic.util.SqlStatementCounter;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@ExtendWith(SqlStatementCounter.class)
 @Slf4j
 public class VetSpecialtyControllerTest {
 
@@ -43,6 +49,7 @@ public class VetSpecialtyControllerTest {
      * Test para obtener todas las relaciones vet-specialty
      */
     @Test
+    @MaxSqlStatements(1)
     public void testGetAllVetSpecialties() throws Exception {
         log.info("✅ Ejecutando test: obtener todas las relaciones vet-specialty");
 
@@ -56,6 +63,7 @@ public class VetSpecialtyControllerTest {
      * Test para crear una nueva relación vet-specialty
      */
     @Test
+    @MaxSqlStatements(4)
     public void testCreateVetSpecialty() throws Exception {
         log.info("✅ Ejecutando test: crear una nueva relación vet-specialty");
 
@@ -78,6 +86,7 @@ public class VetSpecialtyControllerTest {
      * Test para obtener una relación vet-specialty por ID compuesto
      */
     @Test
+    @MaxSqlStatements(4)
     public void testGetVetSpecialtyById() throws Exception {
         log.info("✅ Ejecutando test: obtener relación vet-specialty por ID compuesto");
 
@@ -97,6 +106,7 @@ public class VetSpecialtyControllerTest {
      * Test para obtener especialidades por veterinario
      */
     @Test
+    @MaxSqlStatements(8)
     public void testGetByVetId() throws Exception {
         log.info("✅ Ejecutando test: obtener especialidades por veterinario");
 
@@ -118,6 +128,7 @@ public class VetSpecialtyControllerTest {
      * Test para obtener veterinarios por especialidad
      */
     @Test
+    @MaxSqlStatements(10)
     public void testGetBySpecialtyId() throws Exception {
         log.info("✅ Ejecutando test: obtener veterinarios por especialidad");
 
@@ -139,6 +150,7 @@ public class VetSpecialtyControllerTest {
      * Test para actualizar una relación vet-specialty
      */
     @Test
+    @MaxSqlStatements(7)
     public void testUpdateVetSpecialty() throws Exception {
         log.info("✅ Ejecutando test: actualizar relación vet-specialty");
 
@@ -163,7 +175,8 @@ public class VetSpecialtyControllerTest {
      * Test para eliminar una relación vet-specialty
      */
     @Test
-    public void testDeleteVetSpecialty() throws Exception {
+    @MaxSqlStatements(6)
+    public void testDeleteVetSpecialty() throws Throwable {
         log.info("✅ Ejecutando test: eliminar relación vet-specialty");
 
         // Crear veterinario y especialidad
@@ -172,8 +185,10 @@ public class VetSpecialtyControllerTest {
 
         VetSpecialty vetSpecialty = vetSpecialtyService.create(new VetSpecialty(vet.getId(), specialty.getId()));
 
-        mockMvc.perform(delete("/vet-specialties/" + vetSpecialty.getVetId() + "/" + vetSpecialty.getSpecialtyId()))
-                .andExpect(status().isNoContent());
+        // Un único DELETE, sin leer antes la fila
+        SqlStatementCounter.assertAtMost(1, () ->
+                mockMvc.perform(delete("/vet-specialties/" + vetSpecialty.getVetId() + "/" + vetSpecialty.getSpecialtyId()))
+                        .andExpect(status().isNoContent()));
 
         // Verificar que ya no existe
         mockMvc.perform(get("/vet-specialties/" + vetSpecialty.getVetId() + "/" + vetSpecialty.getSpecialtyId()))
@@ -184,10 +199,111 @@ public class VetSpecialtyControllerTest {
      * Test para manejar relación vet-specialty no encontrada
      */
     @Test
+    @MaxSqlStatements(1)
     public void testGetVetSpecialtyNotFound() throws Exception {
         log.info("✅ Ejecutando test: relación vet-specialty no encontrada");
 
         mockMvc.perform(get("/vet-specialties/99999/99999"))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test para reasignar una relación sobre otra existente: una transacción con DELETE y UPDATE
+     */
+    @Test
+    @MaxSqlStatements(17)
+    public void testMoveVetSpecialtyUpsert() throws Throwable {
+        log.info("✅ Ejecutando test: reasignar relación vet-specialty");
+
+        Vet vet = vetService.create(new Vet("Dra. Lucía", "Paredes"));
+        Specialty specialty1 = specialtyService.create(new Specialty("Nutrición"));
+        Specialty specialty2 = specialtyService.create(new Specialty("Etología"));
+        vetSpecialtyService.create(new VetSpecialty(vet.getId(), specialty1.getId()));
+        vetSpecialtyService.create(new VetSpecialty(vet.getId(), specialty2.getId()));
+
+        String target = objectMapper.writeValueAsString(new VetSpecialty(vet.getId(), specialty2.getId()));
+
+        // El destino ya existe: se sustituye por la fila movida
+        SqlStatementCounter.assertAtMost(2, () ->
+                mockMvc.perform(put("/vet-specialties/" + vet.getId() + "/" + specialty1.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(target))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.specialtyId", is(specialty2.getId().intValue()))));
+
+        SqlStatementCounter.assertAtMost(1, () ->
+                mockMvc.perform(get("/vet-specialties/vet/" + vet.getId()))
+                        .andExpect(jsonPath("$", hasSize(1)))
+                        .andExpect(jsonPath("$[0].specialtyId", is(specialty2.getId().intValue()))));
+
+        // Especialidad de destino inexistente: 400 y la relación original se conserva
+        String missing = objectMapper.writeValueAsString(new VetSpecialty(vet.getId(), 99999L));
+        SqlStatementCounter.assertAtMost(2, () ->
+                mockMvc.perform(put("/vet-specialties/" + vet.getId() + "/" + specialty2.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(missing))
+                        .andExpect(status().isBadRequest()));
+        SqlStatementCounter.assertAtMost(1, () ->
+                mockMvc.perform(get("/vet-specialties/" + vet.getId() + "/" + specialty2.getId()))
+                        .andExpect(status().isOk()));
+
+        SqlStatementCounter.assertAtMost(2, () ->
+                mockMvc.perform(put("/vet-specialties/" + vet.getId() + "/" + specialty1.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(target))
+                        .andExpect(status().isNotFound()));
+    }
+
+    /**
+     * Test para sustituir todas las especialidades de un veterinario escribiendo solo las diferencias
+     */
+    @Test
+    @MaxSqlStatements(13)
+    public void testReplaceVetSpecialties() throws Throwable {
+        log.info("✅ Ejecutando test: sustituir especialidades de un veterinario");
+
+        Vet vet = vetService.create(new Vet("Dr. Andrés", "Castillo"));
+        Specialty specialty1 = specialtyService.create(new Specialty("Cardiología felina"));
+        Specialty specialty2 = specialtyService.create(new Specialty("Fisioterapia"));
+        Specialty specialty3 = specialtyService.create(new Specialty("Acupuntura"));
+        vetSpecialtyService.create(new VetSpecialty(vet.getId(), specialty1.getId()));
+        vetSpecialtyService.create(new VetSpecialty(vet.getId(), specialty2.getId()));
+
+        String specialtyIds = objectMapper.writeValueAsString(List.of(specialty2.getId(), specialty3.getId()));
+
+        // Lectura de las actuales, un DELETE para la que sobra y un INSERT para la nueva
+        SqlStatementCounter.assertAtMost(3, () ->
+                mockMvc.perform(put("/vet-specialties/vet/" + vet.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(specialtyIds))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$[*].specialtyId", contains(
+                                specialty2.getId().intValue(), specialty3.getId().intValue()))));
+
+        SqlStatementCounter.assertAtMost(1, () ->
+                mockMvc.perform(get("/vet-specialties/vet/" + vet.getId()))
+                        .andExpect(jsonPath("$[*].specialtyId", containsInAnyOrder(
+                                specialty2.getId().intValue(), specialty3.getId().intValue()))));
+
+        // Sin cambios no se escribe nada
+        SqlStatementCounter.assertAtMost(1, () ->
+                mockMvc.perform(put("/vet-specialties/vet/" + vet.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(specialtyIds))
+                        .andExpect(status().isOk()));
+    }
+
+    /**
+     * Test para sustituir especialidades con un elemento null en la lista: 400 sin consultar la base de datos
+     */
+    @Test
+    @MaxSqlStatements(0)
+    public void testReplaceVetSpecialtiesNullElement() throws Exception {
+        log.info("✅ Ejecutando test: sustituir especialidades con un elemento null");
+
+        mockMvc.perform(put("/vet-specialties/vet/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, null]"))
+                .andExpect(status().isBadRequest());
+    }
+}
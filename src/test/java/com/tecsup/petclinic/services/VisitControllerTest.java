@@ -1,24 +1,43 @@
 package com.tecsup.petclinic.services;
 
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tecsup.petclinic.datasource.ReadYourWritesGuard;
+import com.tecsup.petclinic.datasource.ReplicaDataSourceProperties;
+import com.tecsup.petclinic.dtos.VisitDTO;
 import com.tecsup.petclinic.entities.Visit;
 import com.tecsup.petclinic.services.VisitService;
+import com.tecsup.petclinic.util.MaxSqlStatements;
+import com.tecsup.petclinic.util.SqlStatementCounter;
+import com.tecsup.petclinic.web.BinaryFormatsConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@ExtendWith(SqlStatementCounter.class)
 @Slf4j
 public class VisitControllerTest {
 
@@ -31,10 +50,23 @@ public class VisitControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private ReplicaDataSourceProperties replicaProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     /**
      * Test para obtener todas las visitas
      */
     @Test
+    @MaxSqlStatements(1)
     public void testGetAllVisits() throws Exception {
         log.info("✅ Ejecutando test: obtener todas las visitas");
 
@@ -48,6 +80,7 @@ public class VisitControllerTest {
      * Test para crear una nueva visita
      */
     @Test
+    @MaxSqlStatements(2)
     public void testCreateVisit() throws Exception {
         log.info("✅ Ejecutando test: crear una nueva visita");
 
@@ -67,6 +100,7 @@ public class VisitControllerTest {
      * Test para obtener una visita por ID
      */
     @Test
+    @MaxSqlStatements(3)
     public void testGetVisitById() throws Exception {
         log.info("✅ Ejecutando test: obtener visita por ID");
 
@@ -83,6 +117,7 @@ public class VisitControllerTest {
      * Test para actualizar una visita
      */
     @Test
+    @MaxSqlStatements(8)
     public void testUpdateVisit() throws Exception {
         log.info("✅ Ejecutando test: actualizar visita");
 
@@ -102,13 +137,16 @@ public class VisitControllerTest {
      * Test para eliminar una visita
      */
     @Test
-    public void testDeleteVisit() throws Exception {
+    @MaxSqlStatements(8)
+    public void testDeleteVisit() throws Throwable {
         log.info("✅ Ejecutando test: eliminar visita");
 
         Visit visit = visitService.create(new Visit(LocalDate.of(2024, 9, 10), "Examen de rutina", 4));
 
-        mockMvc.perform(delete("/visits/" + visit.getId()))
-                .andExpect(status().isNoContent());
+        // Grupo de visit_daily_stats, el DELETE y el recálculo de ese grupo
+        SqlStatementCounter.assertAtMost(4, () ->
+                mockMvc.perform(delete("/visits/" + visit.getId()))
+                        .andExpect(status().isNoContent()));
 
         // Verificar que ya no existe
         mockMvc.perform(get("/visits/" + visit.getId()))
@@ -119,10 +157,287 @@ public class VisitControllerTest {
      * Test para manejar visita no encontrada
      */
     @Test
+    @MaxSqlStatements(1)
     public void testGetVisitNotFound() throws Exception {
         log.info("✅ Ejecutando test: visita no encontrada");
 
         mockMvc.perform(get("/visits/99999"))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test para paginar visitas con cursor keyset
+     */
+    @Test
+    @MaxSqlStatements(1)
+    public void testGetVisitsAfterCursor() throws Exception {
+        log.info("✅ Ejecutando test: paginar visitas con cursor");
+
+        mockMvc.perform(get("/visits").param("after", "1").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-After", "3"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(2)))
+                .andExpect(jsonPath("$[1].id", is(3)));
+    }
+
+    /**
+     * Test para obtener todas las visitas como NDJSON
+     */
+    @Test
+    @MaxSqlStatements(2)
+    public void testStreamVisits() throws Exception {
+        log.info("✅ Ejecutando test: stream NDJSON de visitas");
+
+        String body = mockMvc.perform(get("/visits/stream"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(visitService.findAll().size(), lines.length);
+        assertEquals(1, objectMapper.readValue(lines[0], Visit.class).getId());
+    }
+
+    /**
+     * Test para obtener todas las visitas como secuencia Smile y CBOR
+     */
+    @Test
+    @MaxSqlStatements(3)
+    public void testStreamVisitsBinaryFormats() throws Exception {
+        log.info("✅ Ejecutando test: stream Smile y CBOR de visitas");
+
+        int expected = visitService.findAll().size();
+        ObjectMapper[] mappers = {smileConverter.getObjectMapper(), cborConverter.getObjectMapper()};
+        MediaType[] formats = {BinaryFormatsConfig.SMILE, BinaryFormatsConfig.CBOR_SEQ};
+        for (int i = 0; i < formats.length; i++) {
+            byte[] body = mockMvc.perform(get("/visits/stream").accept(formats[i]))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(formats[i]))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            try (MappingIterator<VisitDTO> visits = mappers[i].readerFor(VisitDTO.class).readValues(body)) {
+                List<VisitDTO> read = visits.readAll();
+                assertEquals(expected, read.size());
+                assertEquals(1, read.get(0).id());
+            }
+        }
+    }
+
+    /**
+     * Test para obtener la lista de visitas en CBOR
+     */
+    @Test
+    @MaxSqlStatements(1)
+    public void testFindAllVisitsCbor() throws Exception {
+        log.info("✅ Ejecutando test: lista de visitas en CBOR");
+
+        byte[] body = mockMvc.perform(get("/visits").param("limit", "2").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        VisitDTO[] visits = cborConverter.getObjectMapper().readValue(body, VisitDTO[].class);
+        assertEquals(2, visits.length);
+        assertEquals(1, visits[0].id());
+    }
+
+    /**
+     * Test para importar visitas en bloque desde JSON
+     */
+    @Test
+    @MaxSqlStatements(7)
+    public void testBulkImportJson() throws Exception {
+        log.info("✅ Ejecutando test: importación masiva JSON");
+
+        String body = "["
+                + "{\"petId\":1,\"vetId\":1,\"visitDate\":\"2024-07-01\",\"description\":\"Importada 1\",\"cost\":40.0},"
+                + "{\"petId\":99999,\"visitDate\":\"2024-07-02\",\"description\":\"Mascota inexistente\"},"
+                + "{\"petId\":2,\"visitDate\":\"2024-07-03\",\"description\":\"Importada 2\"}"
+                + "]";
+
+        mockMvc.perform(post("/visits/bulk").param("chunkSize", "2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received", is(3)))
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.chunks", hasSize(2)))
+                .andExpect(jsonPath("$.chunks[0].errors[0]", containsString("Record 2")))
+                .andExpect(jsonPath("$.chunks[1].imported", is(1)));
+    }
+
+    /**
+     * Test para importar visitas en bloque desde CSV
+     */
+    @Test
+    @MaxSqlStatements(5)
+    public void testBulkImportCsv() throws Exception {
+        log.info("✅ Ejecutando test: importación masiva CSV");
+
+        String body = "petId,vetId,visitDate,description,cost\n"
+                + "1,2,2024-08-01,\"Control, vacunas\",55.5\n"
+                + "3,,2024-08-02,Sin veterinario,\n"
+                + "4,99999,2024-08-03,Veterinario inexistente,10\n";
+
+        mockMvc.perform(post("/visits/bulk")
+                        .contentType("text/csv")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.chunks[0].errors[0]", containsString("vet not found")));
+
+        assertEquals(1, visitService.findByDate(LocalDate.of(2024, 8, 2)).size());
+    }
+
+    /**
+     * Test para obtener ingresos y número de visitas por mes
+     */
+    @Test
+    @MaxSqlStatements(1)
+    public void testGetVisitStats() throws Exception {
+        log.info("✅ Ejecutando test: estadísticas de visitas por mes");
+
+        mockMvc.perform(get("/visits/stats")
+                        .param("groupBy", "month")
+                        .param("from", "2010-01-01")
+                        .param("to", "2010-12-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].key", is("2010-03-01")))
+                .andExpect(jsonPath("$[0].visits", is(3)))
+                .andExpect(jsonPath("$[0].revenue", notNullValue()));
+
+        mockMvc.perform(get("/visits/stats").param("groupBy", "year"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Test para GET condicional y If-Match en visitas
+     */
+    @Test
+    @MaxSqlStatements(13)
+    public void testConditionalVisit() throws Throwable {
+        log.info("✅ Ejecutando test: peticiones condicionales de visita");
+
+        Visit visit = visitService.create(new Visit(LocalDate.of(2024, 10, 22), "Control", 3));
+        String eTag = "\"" + visit.getVersion() + "\"";
+
+        SqlStatementCounter.assertAtMost(1, () ->
+                mockMvc.perform(get("/visits/" + visit.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                        .andExpect(status().isNotModified())
+                        .andExpect(content().string("")));
+
+        SqlStatementCounter.assertAtMost(2, () ->
+                mockMvc.perform(get("/visits/" + visit.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"999\""))
+                        .andExpect(status().isOk())
+                        .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                        .andExpect(jsonPath("$.description", is("Control"))));
+
+        // Grupo de visit_daily_stats, el DELETE que no borra nada y la consulta de por qué
+        SqlStatementCounter.assertAtMost(3, () ->
+                mockMvc.perform(delete("/visits/" + visit.getId()).header(HttpHeaders.IF_MATCH, "\"999\""))
+                        .andExpect(status().isPreconditionFailed()));
+        // Grupo de visit_daily_stats, el DELETE y el recálculo del grupo
+        SqlStatementCounter.assertAtMost(4, () ->
+                mockMvc.perform(delete("/visits/" + visit.getId()).header(HttpHeaders.IF_MATCH, eTag))
+                        .andExpect(status().isNoContent()));
+    }
+
+    /**
+     * Test para leer lo escrito: solo el cliente que escribió (su cookie) lee del primario,
+     * los demás siguen leyendo de la réplica
+     */
+    @Test
+    @MaxSqlStatements(5)
+    public void testReadYourWritesPerClient() throws Exception {
+        log.info("✅ Ejecutando test: leer lo escrito por cliente");
+
+        Duration maxLag = replicaProperties.getMaxLag();
+        replicaProperties.setMaxLag(Duration.ofMinutes(1));
+        try {
+            MockHttpServletResponse created = mockMvc.perform(post("/visits")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new Visit(LocalDate.of(2024, 11, 22), "Leer lo escrito", 1))))
+                    .andExpect(status().isCreated())
+                    .andExpect(cookie().maxAge(ReadYourWritesGuard.COOKIE, 60))
+                    .andReturn().getResponse();
+            Integer id = objectMapper.readValue(created.getContentAsString(), Visit.class).getId();
+            Cookie lastWrite = created.getCookie(ReadYourWritesGuard.COOKIE);
+            assertNotNull(lastWrite);
+
+            double reads = routes("replica", "read-only");
+            double fallback = routes("primary", "read-your-writes");
+
+            // Otro cliente, sin la cookie: réplica
+            mockMvc.perform(get("/visits/" + id))
+                    .andExpect(status().isOk());
+            assertEquals(reads + 1, routes("replica", "read-only"));
+            assertEquals(fallback, routes("primary", "read-your-writes"));
+
+            // El cliente que escribió: primario
+            mockMvc.perform(get("/visits/" + id).cookie(lastWrite))
+                    .andExpect(status().isOk());
+            assertEquals(reads + 1, routes("replica", "read-only"));
+            assertEquals(fallback + 1, routes("primary", "read-your-writes"));
+        } finally {
+            replicaProperties.setMaxLag(maxLag);
+        }
+    }
+
+    private double routes(String route, String reason) {
+        return meterRegistry.get("petclinic.datasource.routes")
+                .tag("route", route).tag("reason", reason).counter().count();
+    }
+
+    /**
+     * Test para PATCH de visitas: un único UPDATE si no cambia nada de las estadísticas
+     */
+    @Test
+    @MaxSqlStatements(14)
+    public void testPatchVisit() throws Throwable {
+        log.info("✅ Ejecutando test: actualización parcial de visita");
+
+        Visit visit = visitService.create(new Visit(7, 2, LocalDate.of(2031, 5, 17), "Control dental", 40.0));
+
+        SqlStatementCounter.assertAtMost(1, () ->
+                mockMvc.perform(patch("/visits/" + visit.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"description\": \"Limpieza dental\"}"))
+                        .andExpect(status().isNoContent()));
+
+        // El coste sí cambia visit_daily_stats: grupo antes y después del UPDATE, y recálculo del grupo
+        SqlStatementCounter.assertAtMost(5, () ->
+                mockMvc.perform(patch("/visits/" + visit.getId())
+                                .header(HttpHeaders.IF_MATCH, "\"" + (visit.getVersion() + 1) + "\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"cost\": 65.5}"))
+                        .andExpect(status().isNoContent()));
+
+        SqlStatementCounter.assertAtMost(1, () ->
+                mockMvc.perform(get("/visits/" + visit.getId()))
+                        .andExpect(jsonPath("$.description", is("Limpieza dental")))
+                        .andExpect(jsonPath("$.cost", is(65.5)))
+                        .andExpect(jsonPath("$.vetId", is(2))));
+
+        SqlStatementCounter.assertAtMost(1, () ->
+                mockMvc.perform(get("/visits/stats")
+                                .param("groupBy", "day")
+                                .param("from", "2031-05-17")
+                                .param("to", "2031-05-17"))
+                        .andExpect(jsonPath("$[0].revenue", is(65.5))));
+
+        SqlStatementCounter.assertAtMost(3, () ->
+                mockMvc.perform(patch("/visits/" + visit.getId())
+                                .header(HttpHeaders.IF_MATCH, "\"" + visit.getVersion() + "\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"cost\": 10.0}"))
+                        .andExpect(status().isPreconditionFailed()));
+
+        SqlStatementCounter.assertAtMost(1, () ->
+                mockMvc.perform(delete("/visits/99999"))
+                        .andExpect(status().isNotFound()));
+    }
+}
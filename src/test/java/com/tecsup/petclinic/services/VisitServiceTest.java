@@ -1,14 +1,30 @@
 package com.tecsup.petclinic.services;
 
+import com.tecsup.petclinic.datasource.ReplicaDataSourceProperties;
+import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.dtos.VisitDTO;
+import com.tecsup.petclinic.dtos.VisitStatsDTO;
+import com.tecsup.petclinic.entities.Owner;
+import com.tecsup.petclinic.entities.Vet;
 import com.tecsup.petclinic.entities.Visit;
+import com.tecsup.petclinic.entities.VisitDailyStats;
+import com.tecsup.petclinic.entities.VisitDailyStatsId;
+import com.tecsup.petclinic.repositories.VisitDailyStatsRepository;
 import com.tecsup.petclinic.repositories.VisitRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -22,6 +38,27 @@ public class VisitServiceTest {
     @Autowired
     private VisitRepository visitRepository;
 
+    @Autowired
+    private PetService petService;
+
+    @Autowired
+    private OwnerService ownerService;
+
+    @Autowired
+    private VetService vetService;
+
+    @Autowired
+    private VisitDailyStatsRepository dailyStatsRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ReplicaDataSourceProperties replicaProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     // ==================== PRUEBAS DE CREACIÓN ====================
 
     /**
@@ -70,6 +107,31 @@ public class VisitServiceTest {
         assertEquals(cost, visit.getCost());
     }
 
+    /**
+     * Prueba la creación masiva de visitas.
+     * Verifica que los INSERT se envíen en lotes JDBC y no uno por visita.
+     */
+    @Test
+    public void testCreateAllVisits_Batched() {
+        int total = 100;
+        List<Visit> visits = new ArrayList<>();
+        for (int i = 0; i < total; i++)
+            visits.add(new Visit(1, 1, LocalDate.of(2024, 1, 1).plusDays(i), "Carga masiva " + i, 10.0));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Visit> created = visitService.createAll(visits);
+        long statements = statistics.getPrepareStatementCount();
+
+        log.info("✅ Visits created: " + created.size() + ", statements prepared: " + statements);
+
+        assertEquals(total, statistics.getEntityInsertCount());
+        created.forEach(visit -> assertNotNull(visit.getId()));
+        // 2 lotes de INSERT + llamadas a la secuencia (bloques de 50 ids)
+        assertTrue(statements <= 6, "Expected batched inserts but got " + statements + " statements");
+    }
+
     /**
      * Prueba que el sistema permita crear visitas sin descripción.
      * Verifica que los campos nulos sean aceptados correctamente.
@@ -174,7 +236,7 @@ public class VisitServiceTest {
      */
     @Test
     public void testFindAllVisits() {
-        List<Visit> visits = visitService.findAll();
+        List<VisitDTO> visits = visitService.findAll();
 
         log.info("✅ Total visits found: " + visits.size());
 
@@ -182,11 +244,29 @@ public class VisitServiceTest {
         assertTrue(visits.size() > 0);
 
         visits.forEach(visit -> {
-            assertNotNull(visit.getId());
-            assertNotNull(visit.getVisitDate());
+            assertNotNull(visit.id());
+            assertNotNull(visit.visitDate());
         });
     }
 
+    /**
+     * Las listas se leen como filas (VisitDTO): una consulta cada una y ninguna entidad cargada.
+     */
+    @Test
+    public void testFindAllLoadsNoEntities() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<VisitDTO> visits = visitService.findAll();
+        List<VisitDTO> page = visitService.findAfter(0, 5);
+
+        log.info("✅ Visits read: " + visits.size() + ", entities loaded: " + statistics.getEntityLoadCount());
+
+        assertEquals(5, page.size());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
     /**
      * Prueba la búsqueda de visitas por mascota (pet_id).
      * Verifica que se recuperen solo las visitas de la mascota especificada.
@@ -536,4 +616,292 @@ public class VisitServiceTest {
 
         assertEquals(75.50, visit.getCost());
     }
-}
\ No newline at end of file
+
+    // ==================== PRUEBAS DE AGREGACIÓN ====================
+
+    // Visitas iniciales de 2010: tres el 2010-03-04, una el 2010-08-04 y una el 2010-09-04
+    // (otras pruebas modifican su costo, por eso los ingresos se comparan con findByDateRange)
+    private static final LocalDate STATS_FROM = LocalDate.of(2010, 1, 1);
+    private static final LocalDate STATS_TO = LocalDate.of(2010, 12, 31);
+
+    /**
+     * Prueba los agregados por día, semana (lunes) y mes dentro de un rango de fechas.
+     */
+    @Test
+    public void testStatsByPeriod() {
+        List<VisitStatsDTO> byDay = visitService.statsByPeriod(VisitStatsDTO.Period.DAY, STATS_FROM, STATS_TO);
+        List<VisitStatsDTO> byWeek = visitService.statsByPeriod(VisitStatsDTO.Period.WEEK, STATS_FROM, STATS_TO);
+        List<VisitStatsDTO> byMonth = visitService.statsByPeriod(VisitStatsDTO.Period.MONTH, STATS_FROM, STATS_TO);
+
+        log.info("✅ Stats by day: " + byDay);
+        log.info("✅ Stats by week: " + byWeek);
+        log.info("✅ Stats by month: " + byMonth);
+
+        assertEquals(List.of("2010-03-04", "2010-08-04", "2010-09-04"), byDay.stream().map(VisitStatsDTO::getKey).toList());
+        assertEquals(List.of("2010-03-01", "2010-08-02", "2010-08-30"), byWeek.stream().map(VisitStatsDTO::getKey).toList());
+        assertEquals(List.of("2010-03-01", "2010-08-01", "2010-09-01"), byMonth.stream().map(VisitStatsDTO::getKey).toList());
+        assertEquals(List.of(3L, 1L, 1L), byMonth.stream().map(VisitStatsDTO::getVisits).toList());
+
+        double revenue = visitService.findByDateRange(STATS_FROM, STATS_TO).stream().mapToDouble(Visit::getCost).sum();
+        assertEquals(revenue, byDay.stream().mapToDouble(VisitStatsDTO::getRevenue).sum(), 0.001);
+        assertEquals(revenue, byWeek.stream().mapToDouble(VisitStatsDTO::getRevenue).sum(), 0.001);
+        assertEquals(revenue, byMonth.stream().mapToDouble(VisitStatsDTO::getRevenue).sum(), 0.001);
+    }
+
+    /**
+     * Prueba los agregados por veterinario y por tipo de mascota.
+     */
+    @Test
+    public void testStatsByVetAndPetType() {
+        List<VisitStatsDTO> byVet = visitService.statsByVet(STATS_FROM, STATS_TO);
+        List<VisitStatsDTO> byType = visitService.statsByPetType(STATS_FROM, STATS_TO);
+
+        log.info("✅ Stats by vet: " + byVet);
+        log.info("✅ Stats by pet type: " + byType);
+
+        assertEquals(List.of("2", "3"), byVet.stream().map(VisitStatsDTO::getKey).toList());
+        assertEquals(List.of(4L, 1L), byVet.stream().map(VisitStatsDTO::getVisits).toList());
+
+        // Todas las visitas de 2010 son de gatos (mascotas 1, 7 y 8)
+        assertEquals(1, byType.size());
+        assertEquals("cat", byType.get(0).getKey());
+        assertEquals(5L, byType.get(0).getVisits());
+
+        // Sin rango de fechas se agregan todas las visitas
+        long total = visitService.statsByVet(null, null).stream().mapToLong(VisitStatsDTO::getVisits).sum();
+        assertEquals(visitRepository.count(), total);
+    }
+
+    /**
+     * Prueba que el resumen diario se actualiza al crear, modificar y eliminar visitas.
+     */
+    @Test
+    public void testDailyStatsMaintainedOnWrite() throws Exception {
+        // Mascota 9 (tipo 5) y veterinario 1, en fechas sin otras visitas
+        LocalDate day1 = LocalDate.of(2005, 5, 5);
+        LocalDate day2 = LocalDate.of(2005, 5, 6);
+        VisitDailyStatsId bucket1 = new VisitDailyStatsId(day1, 1, 5);
+        VisitDailyStatsId bucket2 = new VisitDailyStatsId(day2, 1, 5);
+
+        Visit first = visitService.create(new Visit(9, 1, day1, "Rollup 1", 10.0));
+        Visit second = visitService.create(new Visit(9, 1, day1, "Rollup 2", 30.0));
+
+        VisitDailyStats stats = dailyStatsRepository.findById(bucket1).orElseThrow();
+        assertEquals(2L, stats.getVisits());
+        assertEquals(40.0, stats.getTotalCost());
+        assertEquals(10.0, stats.getMinCost());
+        assertEquals(30.0, stats.getMaxCost());
+
+        // Cambiar fecha y costo mueve la visita de grupo
+        first.setVisitDate(day2);
+        first.setCost(20.0);
+        visitService.update(first);
+
+        stats = dailyStatsRepository.findById(bucket1).orElseThrow();
+        assertEquals(1L, stats.getVisits());
+        assertEquals(30.0, stats.getMinCost());
+        stats = dailyStatsRepository.findById(bucket2).orElseThrow();
+        assertEquals(1L, stats.getVisits());
+        assertEquals(20.0, stats.getTotalCost());
+
+        visitService.delete(second.getId());
+        visitService.delete(first.getId());
+
+        assertTrue(dailyStatsRepository.findById(bucket1).isEmpty());
+        assertTrue(dailyStatsRepository.findById(bucket2).isEmpty());
+    }
+
+    /**
+     * Prueba que reconstruir el resumen diario desde visits da el mismo resultado que el mantenimiento incremental.
+     */
+    @Test
+    public void testRebuildDailyStats() {
+        List<VisitStatsDTO> before = visitService.statsByPeriod(VisitStatsDTO.Period.DAY, null, null);
+
+        int rows = visitService.rebuildDailyStats(null, null);
+
+        assertTrue(rows > 0);
+        assertEquals(rows, dailyStatsRepository.count());
+        assertEquals(before, visitService.statsByPeriod(VisitStatsDTO.Period.DAY, null, null));
+    }
+
+    /**
+     * Prueba que eliminar una mascota (ON DELETE CASCADE de sus visitas) actualiza el resumen diario.
+     */
+    @Test
+    public void testDailyStatsOnPetDelete() throws Exception {
+        LocalDate day = LocalDate.of(2006, 1, 10);
+        PetDTO pet = petService.create(PetDTO.builder().name("Rollup").typeId(1).ownerId(1).build());
+        visitService.create(new Visit(pet.id(), 1, day, "Rollup pet 1", 10.0));
+        visitService.create(new Visit(pet.id(), null, day, "Rollup pet 2", 20.0));
+        // Otra mascota del mismo tipo en el mismo grupo: el grupo no desaparece
+        visitService.create(new Visit(1, 1, day, "Rollup pet 3", 40.0));
+
+        petService.delete(pet.id());
+
+        assertEquals(1L, dailyStatsRepository.findById(new VisitDailyStatsId(day, 1, 1)).orElseThrow().getVisits());
+        assertStatsMatchRebuild(day);
+    }
+
+    /**
+     * Prueba que cambiar el tipo de una mascota (PUT y PATCH) mueve sus visitas de grupo en el resumen diario.
+     */
+    @Test
+    public void testDailyStatsOnPetTypeChange() throws Exception {
+        LocalDate day = LocalDate.of(2006, 1, 11);
+        PetDTO pet = petService.create(PetDTO.builder().name("Rollup").typeId(1).ownerId(1).build());
+        visitService.create(new Visit(pet.id(), 1, day, "Rollup type 1", 10.0));
+        visitService.create(new Visit(pet.id(), null, day, "Rollup type 2", 20.0));
+
+        petService.update(pet.toBuilder().typeId(2).build());
+
+        assertTrue(dailyStatsRepository.findById(new VisitDailyStatsId(day, 1, 1)).isEmpty());
+        assertEquals(1L, dailyStatsRepository.findById(new VisitDailyStatsId(day, 1, 2)).orElseThrow().getVisits());
+        assertStatsMatchRebuild(day);
+
+        petService.patch(pet.id(), PetDTO.builder().typeId(3).build(), List.of("typeId"));
+
+        assertTrue(dailyStatsRepository.findById(new VisitDailyStatsId(day, VisitDailyStats.NO_VET, 2)).isEmpty());
+        assertStatsMatchRebuild(day);
+
+        petService.delete(pet.id());
+    }
+
+    /**
+     * Prueba que eliminar un propietario (ON DELETE CASCADE de mascotas y visitas) actualiza el resumen diario.
+     */
+    @Test
+    public void testDailyStatsOnOwnerDelete() throws Exception {
+        LocalDate day = LocalDate.of(2006, 1, 12);
+        Owner owner = new Owner();
+        owner.setFirstName("Rollup");
+        owner.setLastName("Owner");
+        owner = ownerService.create(owner);
+        PetDTO cat = petService.create(PetDTO.builder().name("Rollup").typeId(1).ownerId(owner.getId().intValue()).build());
+        PetDTO dog = petService.create(PetDTO.builder().name("Rollup").typeId(2).ownerId(owner.getId().intValue()).build());
+        visitService.create(new Visit(cat.id(), 1, day, "Rollup owner 1", 10.0));
+        visitService.create(new Visit(dog.id(), 2, day, "Rollup owner 2", 20.0));
+
+        ownerService.delete(owner.getId());
+
+        assertTrue(dailyStatsRepository.findById(new VisitDailyStatsId(day, 1, 1)).isEmpty());
+        assertTrue(dailyStatsRepository.findById(new VisitDailyStatsId(day, 2, 2)).isEmpty());
+        assertStatsMatchRebuild(day);
+    }
+
+    /**
+     * Prueba que eliminar un veterinario (ON DELETE SET NULL) pasa sus visitas al grupo sin veterinario.
+     */
+    @Test
+    public void testDailyStatsOnVetDelete() throws Exception {
+        LocalDate day = LocalDate.of(2006, 1, 13);
+        Vet vet = new Vet();
+        vet.setFirstName("Rollup");
+        vet.setLastName("Vet");
+        vet = vetService.create(vet);
+        Integer vetId = vet.getId().intValue();
+        visitService.create(new Visit(1, vetId, day, "Rollup vet 1", 10.0));
+        visitService.create(new Visit(1, null, day, "Rollup vet 2", 20.0));
+
+        vetService.delete(vet.getId());
+
+        assertTrue(dailyStatsRepository.findById(new VisitDailyStatsId(day, vetId, 1)).isEmpty());
+        assertEquals(2L, dailyStatsRepository.findById(new VisitDailyStatsId(day, VisitDailyStats.NO_VET, 1)).orElseThrow().getVisits());
+        assertStatsMatchRebuild(day);
+    }
+
+    // Lo que sirve GET /visits/stats para ese día debe coincidir con el resumen reconstruido desde visits
+    private void assertStatsMatchRebuild(LocalDate day) {
+        List<List<VisitStatsDTO>> maintained = stats(day);
+        visitService.rebuildDailyStats(day, day);
+        assertEquals(stats(day), maintained);
+    }
+
+    private List<List<VisitStatsDTO>> stats(LocalDate day) {
+        return List.of(visitService.statsByPeriod(VisitStatsDTO.Period.DAY, day, day),
+                visitService.statsByVet(day, day), visitService.statsByPetType(day, day));
+    }
+
+    // ==================== PRUEBAS DE RÉPLICA ====================
+
+    private double routes(String route, String reason) {
+        return meterRegistry.get("petclinic.datasource.routes")
+                .tag("route", route).tag("reason", reason).counter().count();
+    }
+
+    /**
+     * Prueba que las lecturas (transacciones readOnly) se envían a la réplica
+     * y las escrituras al primario.
+     */
+    @Test
+    public void testReadsRoutedToReplica() {
+        Duration maxLag = replicaProperties.getMaxLag();
+        // Sin ventana de retraso: ninguna lectura se desvía al primario
+        replicaProperties.setMaxLag(Duration.ZERO);
+        try {
+            double reads = routes("replica", "read-only");
+            double writes = routes("primary", "write");
+
+            List<Visit> visits = visitService.findByDateRange(LocalDate.of(2010, 1, 1), LocalDate.of(2010, 12, 31));
+            assertFalse(visits.isEmpty());
+            assertEquals(reads + 1, routes("replica", "read-only"));
+
+            visitService.create(new Visit(LocalDate.of(2024, 11, 20), "Replica routing", 1));
+            assertEquals(writes + 1, routes("primary", "write"));
+            assertEquals(reads + 1, routes("replica", "read-only"));
+        } finally {
+            replicaProperties.setMaxLag(maxLag);
+        }
+    }
+
+    /**
+     * Prueba que, justo después de una escritura, las lecturas van al primario
+     * para ver el cambio aunque la réplica vaya con retraso.
+     */
+    @Test
+    public void testReadYourWritesAfterMutation() throws Exception {
+        Duration maxLag = replicaProperties.getMaxLag();
+        replicaProperties.setMaxLag(Duration.ofMinutes(1));
+        try {
+            Visit visit = visitService.create(new Visit(LocalDate.of(2024, 11, 21), "Read your writes", 1));
+
+            double reads = routes("replica", "read-only");
+            double fallback = routes("primary", "read-your-writes");
+
+            assertEquals("Read your writes", visitService.findById(visit.getId()).getDescription());
+            assertEquals(fallback + 1, routes("primary", "read-your-writes"));
+            assertEquals(reads, routes("replica", "read-only"));
+        } finally {
+            replicaProperties.setMaxLag(maxLag);
+        }
+    }
+
+    /**
+     * Prueba que un fallo dentro de un bloque de la importación se propaga: no se informa
+     * como error de lectura del cuerpo ni se vuelve a importar el mismo bloque.
+     */
+    @Test
+    public void testImportVisitsChunkFailurePropagates() {
+        LocalDate date = LocalDate.of(2024, 12, 2);
+        AtomicInteger lookups = new AtomicInteger();
+        // Falla solo la primera vez, como un error transitorio de la base de datos
+        Visit failing = new Visit(date, "Bloque con fallo", 1) {
+            @Override
+            public Integer getPetId() {
+                if (lookups.getAndIncrement() == 0)
+                    throw new IllegalStateException("lookup failed");
+                return super.getPetId();
+            }
+        };
+        List<Visit> visits = List.of(new Visit(date, "Bloque 1a", 1), new Visit(date, "Bloque 1b", 2),
+                failing, new Visit(date, "Bloque 2b", 3));
+        int before = visitService.findByDate(date).size();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> visitService.importVisits(visits.iterator(), 2));
+
+        assertEquals("lookup failed", e.getMessage());
+        // El primer bloque ya estaba confirmado; el segundo no se importó
+        assertEquals(before + 2, visitService.findByDate(date).size());
+    }
+}
@@ -0,0 +1,20 @@
+package com.tecsup.petclinic.util;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Upper bound of JDBC statements a test may execute, enforced by {@link SqlStatementCounter}.
+ * On a class it is the default for every test in it; on a method it overrides the class value.
+ * Setup done inside the test (e.g. creating the entity it then reads) counts too.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface MaxSqlStatements {
+
+    int value();
+}
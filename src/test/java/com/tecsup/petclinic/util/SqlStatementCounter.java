@@ -0,0 +1,129 @@
+package com.tecsup.petclinic.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * JUnit 5 extension that counts the JDBC statements executed by the test thread,
+ * using the datasource-proxy installed by {@code com.tecsup.petclinic.sql}.
+ * Batches count once per execution, the same as the Server-Timing header.
+ * <p>
+ * Per test: annotate with {@link MaxSqlStatements}. Per block:
+ * {@link #count(Executable)} or {@link #assertAtMost(int, Executable)}.
+ *
+ * <pre>
+ * &#64;SpringBootTest
+ * &#64;ExtendWith(SqlStatementCounter.class)
+ * class OwnerControllerTest {
+ *
+ *     &#64;Test
+ *     &#64;MaxSqlStatements(3)
+ *     void testGetOwnerSummary() { ... }
+ * }
+ * </pre>
+ */
+public class SqlStatementCounter implements BeforeEachCallback, AfterEachCallback {
+
+    // Sentencias del test en curso (null fuera de un test con la extensión)
+    private static final ThreadLocal<List<String>> CURRENT = new ThreadLocal<>();
+
+    private static final QueryExecutionListener LISTENER = new QueryExecutionListener() {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            List<String> statements = CURRENT.get();
+            if (statements != null) {
+                statements.add(queryInfoList.isEmpty() ? "?" : queryInfoList.get(0).getQuery());
+            }
+        }
+    };
+
+    // Un listener por DataSource, aunque haya varios contextos de Spring en caché
+    private static final Set<ProxyDataSource> REGISTERED = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        DataSource dataSource = SpringExtension.getApplicationContext(context).getBean(DataSource.class);
+        if (!(dataSource instanceof ProxyDataSource proxy)) {
+            throw new IllegalStateException("SqlStatementCounter needs petclinic.sql.enabled=true, DataSource is "
+                    + dataSource.getClass().getName());
+        }
+        synchronized (REGISTERED) {
+            if (REGISTERED.add(proxy)) {
+                proxy.getProxyConfig().getQueryListener().addListener(LISTENER);
+            }
+        }
+        CURRENT.set(new ArrayList<>());
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        List<String> statements = CURRENT.get();
+        CURRENT.remove();
+        if (statements == null || context.getExecutionException().isPresent()) {
+            return;
+        }
+        Optional<MaxSqlStatements> limit = AnnotationSupport
+                .findAnnotation(context.getRequiredTestMethod(), MaxSqlStatements.class)
+                .or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), MaxSqlStatements.class));
+        if (limit.isPresent()) {
+            check(context.getDisplayName(), limit.get().value(), statements);
+        }
+    }
+
+    /**
+     * Statements executed by the test thread while running {@code block}.
+     */
+    public static int count(Executable block) throws Throwable {
+        return executed(block).size();
+    }
+
+    /**
+     * Runs {@code block} and fails if it executed more than {@code max} statements.
+     */
+    public static void assertAtMost(int max, Executable block) throws Throwable {
+        check("block", max, executed(block));
+    }
+
+    private static List<String> executed(Executable block) throws Throwable {
+        List<String> statements = CURRENT.get();
+        if (statements == null) {
+            throw new IllegalStateException("Register the extension: @ExtendWith(SqlStatementCounter.class)");
+        }
+        int from = statements.size();
+        block.execute();
+        return new ArrayList<>(statements.subList(from, statements.size()));
+    }
+
+    private static void check(String what, int max, List<String> statements) {
+        if (statements.size() > max) {
+            StringBuilder message = new StringBuilder()
+                    .append(what).append(": expected at most ").append(max)
+                    .append(" SQL statements but ").append(statements.size()).append(" were executed");
+            statements.forEach(sql -> message.append(System.lineSeparator()).append("  ").append(sql));
+            throw new AssertionFailedError(message.toString(), max, statements.size());
+        }
+    }
+}
@@ -27,17 +27,15 @@ public class TObjectCreator {
 	}
 
 	public static PetDTO newPetDTO() {
-		PetDTO newDTO = new PetDTO();
-		newDTO.setName("Punky");
-		newDTO.setTypeId(1);
-		newDTO.setOwnerId(1);
-		return newDTO;
+		return PetDTO.builder()
+				.name("Punky")
+				.typeId(1)
+				.ownerId(1)
+				.build();
 	}
 
 	public static PetDTO newPetDTOCreated() {
-		PetDTO petDTO = newPetDTO();
-		petDTO.setId(1000);
-		return petDTO;
+		return newPetDTO().toBuilder().id(1000).build();
 	}
 
 